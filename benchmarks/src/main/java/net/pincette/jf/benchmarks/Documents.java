@@ -0,0 +1,223 @@
+package net.pincette.jf.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import net.pincette.jf.JacksonGenerator;
+import net.pincette.jf.JacksonParser;
+
+/**
+ * Synthetic documents for the benchmarks. A document is a top-level array of records. The records
+ * contain strings, integers, timestamps, decimals, nested objects and arrays and also empty
+ * objects and arrays, so the filters that remove those have something to do.
+ *
+ * @author Werner Donn\u00e9
+ */
+class Documents {
+  static final JsonFactory FACTORY = new JsonFactory();
+
+  private static final int RECORDS = 1024;
+  private static final byte[] CLOSE = new byte[] {']'};
+  private static final byte[] OPEN = new byte[] {'['};
+  private static final byte[][] TEMPLATES = createTemplates();
+  private static final byte[][] SEPARATED = separated();
+
+  private Documents() {}
+
+  private static byte[][] createTemplates() {
+    final byte[][] result = new byte[RECORDS][];
+
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = record(i).getBytes(UTF_8);
+    }
+
+    return result;
+  }
+
+  private static byte[][] separated() {
+    final byte[][] result = new byte[RECORDS][];
+
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = withComma(TEMPLATES[i]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns a document of approximately <code>size</code> bytes.
+   *
+   * @param size the given size.
+   * @return The document.
+   */
+  static byte[] document(final long size) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream((int) size + 1024);
+
+    try (InputStream in = stream(size)) {
+      final byte[] buffer = new byte[0x10000];
+
+      for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+        out.write(buffer, 0, n);
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+
+    return out.toByteArray();
+  }
+
+  static OutputStream discard() {
+    return new OutputStream() {
+      @Override
+      public void write(final int b) {
+        // Discard.
+      }
+
+      @Override
+      public void write(final byte[] b, final int off, final int len) {
+        // Discard.
+      }
+    };
+  }
+
+  static long events(final byte[] document) {
+    final JacksonParser parser = parser(document);
+    long result = 0;
+
+    for (; parser.hasNext(); parser.next()) {
+      ++result;
+    }
+
+    return result;
+  }
+
+  static JacksonGenerator generator() {
+    try {
+      return new JacksonGenerator(FACTORY.createGenerator(discard()));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static JacksonParser parser(final byte[] document) {
+    try {
+      return new JacksonParser(FACTORY.createParser(document));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  static JacksonParser parser(final InputStream document) {
+    try {
+      return new JacksonParser(FACTORY.createParser(document));
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static String record(final int i) {
+    return "{\"id\":\""
+        + Integer.toHexString(i * 0x9e3779b1)
+        + "\",\"sequence\":"
+        + i
+        + ",\"timestamp\":"
+        + (1571234567890L + i * 1000L)
+        + ",\"amount\":"
+        + (i * 31 % 10000)
+        + "."
+        + (i % 100)
+        + ",\"active\":"
+        + (i % 3 == 0)
+        + ",\"comment\":"
+        + (i % 5 == 0 ? "null" : "\"Record number " + i + " with some text\"")
+        + ",\"customer\":{\"name\":\"Customer "
+        + (i % 97)
+        + "\",\"address\":{\"street\":\"Street "
+        + (i % 13)
+        + "\",\"city\":\"City\",\"extra\":{}},\"tags\":[]}"
+        + ",\"lines\":["
+        + "{\"product\":\"P"
+        + (i % 17)
+        + "\",\"quantity\":"
+        + (i % 7 + 1)
+        + ",\"price\":12.5,\"options\":{}},"
+        + "{\"product\":\"Q"
+        + (i % 19)
+        + "\",\"quantity\":1,\"price\":0.99,\"options\":{\"gift\":true},\"notes\":[]}"
+        + "],\"empty\":{\"nested\":{}},\"scores\":[1,2,3,"
+        + i
+        + "]}";
+  }
+
+  /**
+   * Returns a stream that produces a document of approximately <code>size</code> bytes on the fly,
+   * which makes it possible to run multi-GB documents without keeping them in memory.
+   *
+   * @param size the given size.
+   * @return The document stream.
+   */
+  static InputStream stream(final long size) {
+    return new InputStream() {
+      private byte[] current = OPEN;
+      private boolean first = true;
+      private int position;
+      private long produced;
+      private int record = -1;
+
+      private boolean advance() {
+        if (current == CLOSE) {
+          current = null;
+
+          return false;
+        }
+
+        if (produced >= size) {
+          current = CLOSE;
+        } else {
+          record = (record + 1) % RECORDS;
+          current = first ? TEMPLATES[record] : SEPARATED[record];
+          first = false;
+        }
+
+        position = 0;
+
+        return true;
+      }
+
+      @Override
+      public int read() {
+        final byte[] b = new byte[1];
+
+        return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xff);
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+        if (current == null || (position == current.length && !advance())) {
+          return -1;
+        }
+
+        final int n = Math.min(len, current.length - position);
+
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        produced += n;
+
+        return n;
+      }
+    };
+  }
+
+  private static byte[] withComma(final byte[] record) {
+    final byte[] result = new byte[record.length + 1];
+
+    result[0] = ',';
+    System.arraycopy(record, 0, result, 1, record.length);
+
+    return result;
+  }
+}
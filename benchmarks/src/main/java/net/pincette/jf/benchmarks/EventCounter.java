@@ -0,0 +1,26 @@
+package net.pincette.jf.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.AuxCounters.Type;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Reports the number of parser events as a secondary throughput result. Dividing the
+ * <code>gc.alloc.rate.norm</code> result of the GC profiler by the number of events per operation
+ * gives the allocation per event.
+ *
+ * @author Werner Donn\u00e9
+ */
+@AuxCounters(Type.OPERATIONS)
+@State(Scope.Thread)
+public class EventCounter {
+  public long events;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    events = 0;
+  }
+}
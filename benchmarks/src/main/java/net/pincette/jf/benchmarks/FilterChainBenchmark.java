@@ -0,0 +1,177 @@
+package net.pincette.jf.benchmarks;
+
+import static net.pincette.jf.benchmarks.Documents.document;
+import static net.pincette.jf.benchmarks.Documents.events;
+import static net.pincette.jf.benchmarks.Documents.generator;
+import static net.pincette.jf.benchmarks.Documents.parser;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.json.stream.JsonGenerator;
+import net.pincette.jf.AccumulatingGeneratorFilter;
+import net.pincette.jf.ArrayStreamingGeneratorFilter;
+import net.pincette.jf.FilterChain;
+import net.pincette.jf.JsonGeneratorFilter;
+import net.pincette.jf.RemoveEmptyArraysGenerator;
+import net.pincette.jf.RemoveEmptyObjectsGenerator;
+import net.pincette.jf.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures filter chains of different depths between a <code>JacksonParser</code> and a <code>
+ * JacksonGenerator</code>. The first element of the chain is determined by the <code>head</code>
+ * parameter. It is followed by padding filters until the chain has the requested depth. A depth of
+ * 0 means the parser is copied straight into the generator. The fused variant builds the same chain
+ * with <code>FilterChain</code>.
+ *
+ * <p>With the <code>PASS_THROUGH</code> padding the fused chain leaves the padding out. The <code>
+ * FORWARDING</code> padding forwards every event as well, but it overrides a method, so it stays in
+ * the fused chain. It cycles through several classes, so the calls to the next element see as many
+ * receiver types as in a chain of different real filters.
+ *
+ * @author Werner Donn\u00e9
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class FilterChainBenchmark {
+  @Param({"0", "1", "2", "4", "8"})
+  public int depth;
+
+  @Param({
+    "PASS_THROUGH",
+    "REMOVE_EMPTY_OBJECTS",
+    "REMOVE_EMPTY_ARRAYS",
+    "ACCUMULATING",
+    "ARRAY_STREAMING"
+  })
+  public Head head;
+
+  @Param({"PASS_THROUGH", "FORWARDING"})
+  public Padding padding;
+
+  @Param({"SMALL", "MEDIUM"})
+  public Size size;
+
+  private byte[] document;
+  private long events;
+
+  private JsonGenerator chain() {
+    if (depth == 0) {
+      return generator();
+    }
+
+    final JsonGeneratorFilter result = head.filter.get();
+
+    for (int i = 1; i < depth; ++i) {
+      result.thenApply(padding.filter(i));
+    }
+
+    return result.thenApply(generator());
+  }
+
+  @Benchmark
+  public Object filterChain(final EventCounter counter) {
+    final JsonGenerator chain = chain();
+
+    Util.add(parser(document), chain);
+    counter.events += events;
+
+    return chain;
+  }
+
+  @Benchmark
+  public Object fusedFilterChain(final EventCounter counter) {
+    final JsonGenerator chain = fusedChain();
+
+    Util.add(parser(document), chain);
+    counter.events += events;
+
+    return chain;
+  }
+
+  private JsonGenerator fusedChain() {
+    if (depth == 0) {
+      return generator();
+    }
+
+    final FilterChain result = new FilterChain().add(head.filter.get());
+
+    for (int i = 1; i < depth; ++i) {
+      result.add(padding.filter(i));
+    }
+
+    return result.build(generator());
+  }
+
+  @Setup
+  public void setup() {
+    document = document(size.bytes);
+    events = events(document);
+  }
+
+  public enum Head {
+    ACCUMULATING(AccumulatingGeneratorFilter::new),
+    ARRAY_STREAMING(ArrayStreamingGeneratorFilter::new),
+    PASS_THROUGH(JsonGeneratorFilter::new),
+    REMOVE_EMPTY_ARRAYS(RemoveEmptyArraysGenerator::new),
+    REMOVE_EMPTY_OBJECTS(RemoveEmptyObjectsGenerator::new);
+
+    private final Supplier<JsonGeneratorFilter> filter;
+
+    Head(final Supplier<JsonGeneratorFilter> filter) {
+      this.filter = filter;
+    }
+  }
+
+  public enum Padding {
+    FORWARDING {
+      JsonGeneratorFilter filter(final int i) {
+        switch (i % 4) {
+          case 0:
+            return new Forwarding1();
+          case 1:
+            return new Forwarding2();
+          case 2:
+            return new Forwarding3();
+          default:
+            return new Forwarding4();
+        }
+      }
+    },
+
+    PASS_THROUGH {
+      JsonGeneratorFilter filter(final int i) {
+        return new JsonGeneratorFilter();
+      }
+    };
+
+    abstract JsonGeneratorFilter filter(final int i);
+  }
+
+  private static class Forwarding1 extends JsonGeneratorFilter {
+    @Override
+    public JsonGenerator writeKey(final String name) {
+      return super.writeKey(name);
+    }
+  }
+
+  private static class Forwarding2 extends Forwarding1 {}
+
+  private static class Forwarding3 extends Forwarding1 {}
+
+  private static class Forwarding4 extends Forwarding1 {}
+}
@@ -0,0 +1,67 @@
+package net.pincette.jf.benchmarks;
+
+import static net.pincette.jf.benchmarks.Documents.document;
+import static net.pincette.jf.benchmarks.Documents.events;
+import static net.pincette.jf.benchmarks.Documents.generator;
+import static net.pincette.jf.benchmarks.Documents.parser;
+
+import java.util.concurrent.TimeUnit;
+import javax.json.JsonArray;
+import javax.json.stream.JsonParser;
+import net.pincette.jf.JsonBuilderGenerator;
+import net.pincette.jf.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the generator side: copying a document with <code>Util.add</code> into a <code>
+ * JacksonGenerator</code> and materializing it with a <code>JsonBuilderGenerator</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class GeneratorBenchmark {
+  @Param({"SMALL", "MEDIUM"})
+  public Size size;
+
+  private byte[] document;
+  private long events;
+
+  @Benchmark
+  public Object jacksonGenerator(final EventCounter counter) {
+    counter.events += events;
+
+    return Util.add(parser(document), generator());
+  }
+
+  @Benchmark
+  public JsonArray jsonBuilderGenerator(final EventCounter counter) {
+    final JsonParser parser = parser(document);
+
+    counter.events += events;
+    parser.next();
+
+    return (JsonArray)
+        ((JsonBuilderGenerator) Util.addArray(parser, new JsonBuilderGenerator())).build();
+  }
+
+  @Setup
+  public void setup() {
+    document = document(size.bytes);
+    events = events(document);
+  }
+}
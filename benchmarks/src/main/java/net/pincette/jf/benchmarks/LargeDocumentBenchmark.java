@@ -0,0 +1,54 @@
+package net.pincette.jf.benchmarks;
+
+import static net.pincette.jf.benchmarks.Documents.generator;
+import static net.pincette.jf.benchmarks.Documents.parser;
+
+import java.util.concurrent.TimeUnit;
+import net.pincette.jf.ArrayStreamingGeneratorFilter;
+import net.pincette.jf.RemoveEmptyArraysGenerator;
+import net.pincette.jf.RemoveEmptyObjectsGenerator;
+import net.pincette.jf.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Runs multi-GB documents through the library. The documents are produced on the fly, so the heap
+ * doesn't have to hold them. Set the size with <code>-p gigabytes=...</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+@Measurement(iterations = 3)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 1)
+public class LargeDocumentBenchmark {
+  private static final long GIGABYTE = 1024L * 1024L * 1024L;
+
+  @Param({"2"})
+  public int gigabytes;
+
+  @Benchmark
+  public Object arrayStreaming() {
+    return Util.add(
+        parser(Documents.stream(gigabytes * GIGABYTE)),
+        new ArrayStreamingGeneratorFilter()
+            .thenApply(new RemoveEmptyObjectsGenerator())
+            .thenApply(new RemoveEmptyArraysGenerator())
+            .thenApply(generator()));
+  }
+
+  @Benchmark
+  public long valueStream() {
+    return Util.stream(parser(Documents.stream(gigabytes * GIGABYTE))).count();
+  }
+}
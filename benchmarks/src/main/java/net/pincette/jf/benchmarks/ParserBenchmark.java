@@ -0,0 +1,85 @@
+package net.pincette.jf.benchmarks;
+
+import static net.pincette.jf.benchmarks.Documents.document;
+import static net.pincette.jf.benchmarks.Documents.parser;
+
+import java.util.concurrent.TimeUnit;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import net.pincette.jf.JsonParserWrapper;
+import net.pincette.jf.Util;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the parser side: pulling all events with their values and building values with
+ * <code>Util.stream</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+public class ParserBenchmark {
+  @Param({"SMALL", "MEDIUM"})
+  public Size size;
+
+  private byte[] document;
+
+  private static void drain(
+      final JsonParser parser, final Blackhole blackhole, final EventCounter counter) {
+    while (parser.hasNext()) {
+      final Event event = parser.next();
+
+      switch (event) {
+        case KEY_NAME:
+        case VALUE_STRING:
+          blackhole.consume(parser.getString());
+          break;
+        case VALUE_NUMBER:
+          blackhole.consume(parser.getBigDecimal());
+          break;
+        default:
+          blackhole.consume(event);
+          break;
+      }
+
+      ++counter.events;
+    }
+
+    parser.close();
+  }
+
+  @Benchmark
+  public void jacksonParser(final Blackhole blackhole, final EventCounter counter) {
+    drain(parser(document), blackhole, counter);
+  }
+
+  @Benchmark
+  public void parserWrapper(final Blackhole blackhole, final EventCounter counter) {
+    drain(new JsonParserWrapper(parser(document)), blackhole, counter);
+  }
+
+  @Setup
+  public void setup() {
+    document = document(size.bytes);
+  }
+
+  @Benchmark
+  public void stream(final Blackhole blackhole) {
+    Util.stream(parser(document)).forEach(blackhole::consume);
+  }
+}
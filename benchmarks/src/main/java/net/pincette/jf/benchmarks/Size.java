@@ -0,0 +1,17 @@
+package net.pincette.jf.benchmarks;
+
+/**
+ * The sizes of the in-memory documents.
+ *
+ * @author Werner Donn\u00e9
+ */
+public enum Size {
+  SMALL(1024),
+  MEDIUM(1024 * 1024);
+
+  final long bytes;
+
+  Size(final long bytes) {
+    this.bytes = bytes;
+  }
+}
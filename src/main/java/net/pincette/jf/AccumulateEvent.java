@@ -0,0 +1,34 @@
+package net.pincette.jf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for the accumulation of one element in an <code>AccumulatingGeneratorFilter</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@Name("net.pincette.jf.Accumulate")
+@Label("JSON Accumulate")
+@Category("JSON")
+@Description("Accumulates an element in an AccumulatingGeneratorFilter")
+class AccumulateEvent extends Event {
+  @Label("Buffered Bytes")
+  @Description("The size of the event encoding when there is a memory budget")
+  @DataAmount
+  long bufferedBytes;
+
+  @Label("Size")
+  @Description("The number of entries or elements, or -1 when the element was spilled")
+  int size;
+
+  @Label("Spilled")
+  boolean spilled;
+
+  @Label("Type")
+  String type;
+}
@@ -1,12 +1,15 @@
 package net.pincette.jf;
 
-import static javax.json.Json.createArrayBuilder;
-import static javax.json.Json.createObjectBuilder;
+import static net.pincette.jf.Provider.createArrayBuilder;
+import static net.pincette.jf.Provider.createObjectBuilder;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.Optional;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
 import javax.json.JsonObjectBuilder;
+import javax.json.JsonStructure;
 import javax.json.JsonValue;
 import javax.json.stream.JsonGenerator;
 
@@ -14,28 +17,157 @@ import javax.json.stream.JsonGenerator;
  * This filter accumulates objects and arrays and writes them to the next filter element with the
  * <code>JsonValue</code> variants of the <code>write</code> method.
  *
+ * <p>With a memory budget the events of an element are first recorded in a compact binary
+ * encoding. An element that stays within the budget is then built from that encoding. A larger
+ * element is spilled to a memory mapped temporary file and written to the next filter element as
+ * the original sequence of events instead of a value, so the heap use remains bounded.
+ *
+ * <p>The budget has a price. Every element is encoded and decoded once more before it is built,
+ * also when it fits. So only set a budget when a single element may be too large for the heap.
+ *
  * @author Werner Donn\u00e9
  */
 public class AccumulatingGeneratorFilter extends JsonGeneratorFilter {
+  private final long budget;
+  private EventBuffer buffer;
   private Object builder;
+  private AccumulateEvent event;
+  private final JsonBuilderFactory factory;
   private Deque<String> stack = new ArrayDeque<>();
 
+  public AccumulatingGeneratorFilter() {
+    this(null);
+  }
+
+  /**
+   * Creates a filter that accumulates with the builders of <code>factory</code>.
+   *
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   */
+  public AccumulatingGeneratorFilter(final JsonBuilderFactory factory) {
+    this(factory, -1);
+  }
+
+  /**
+   * Creates a filter with a memory budget per element.
+   *
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   * @param budget the maximum number of bytes the encoded events of an element may occupy in
+   *     memory. When it is negative there is no limit and the elements are built directly, without
+   *     the intermediate encoding.
+   */
+  public AccumulatingGeneratorFilter(final JsonBuilderFactory factory, final long budget) {
+    this.factory = factory;
+    this.budget = budget;
+  }
+
+  private void commitEvent(final JsonValue value) {
+    if (event != null) {
+      event.end();
+
+      if (event.shouldCommit()) {
+        event.bufferedBytes = buffer != null ? buffer.length() : -1;
+        event.size = value != null ? Util.size((JsonStructure) value) : -1;
+        event.spilled = buffer != null && buffer.isSpilled();
+        event.commit();
+      }
+
+      event = null;
+    }
+  }
+
+  private void startEvent(final boolean array) {
+    if (Jfr.isAccumulateEnabled()) {
+      event = new AccumulateEvent();
+      event.type = array ? "ARRAY" : "OBJECT";
+      event.begin();
+    }
+  }
+
+  private boolean startBuffer(final boolean array) {
+    if (budget < 0) {
+      return false;
+    }
+
+    buffer = new EventBuffer(budget);
+    insertAccumulator(buffer);
+
+    if (array) {
+      buffer.writeStartArray();
+    } else {
+      buffer.writeStartObject();
+    }
+
+    return true;
+  }
+
+  private void writeBuffer(final String name) {
+    buffer.writeEnd();
+
+    try {
+      if (buffer.isSpilled()) {
+        commitEvent(null);
+        Optional.ofNullable(getNext()).ifPresent(n -> buffer.replay(n, name));
+      } else {
+        final JsonValue value = buffer.toValue(factory);
+
+        commitEvent(value);
+
+        if (name == null) {
+          super.write(value);
+        } else {
+          super.write(name, value);
+        }
+      }
+    } finally {
+      buffer.close();
+      buffer = null;
+    }
+  }
+
   private JsonValue build() {
     return builder instanceof JsonObjectBuilder
         ? ((JsonObjectBuilder) builder).build()
         : ((JsonArrayBuilder) builder).build();
   }
 
+  @Override
+  public void reset() {
+    if (buffer != null) {
+      buffer.close();
+      buffer = null;
+    }
+
+    builder = null;
+    event = null;
+    stack.clear();
+    super.reset();
+  }
+
   @Override
   public JsonGenerator writeEnd() {
+    if (stack.isEmpty()) {
+      return super.writeEnd();
+    }
+
     final String name = stack.pop();
 
     if (stack.isEmpty()) {
       removeAccumulator();
-      if ("".equals(name)) {
-        super.write(build());
+      if (buffer != null) {
+        writeBuffer("".equals(name) ? null : name);
       } else {
-        super.write(name, build());
+        final JsonValue value = build();
+
+        commitEvent(value);
+
+        if ("".equals(name)) {
+          super.write(value);
+        } else {
+          super.write(name, value);
+        }
       }
     } else {
       super.writeEnd();
@@ -52,8 +184,12 @@ public class AccumulatingGeneratorFilter extends JsonGeneratorFilter {
   @Override
   public JsonGenerator writeStartArray(final String name) {
     if (stack.isEmpty()) {
-      builder = createArrayBuilder();
-      insertAccumulator(new JsonBuilderGenerator((JsonArrayBuilder) builder));
+      startEvent(true);
+
+      if (!startBuffer(true)) {
+        builder = factory != null ? factory.createArrayBuilder() : createArrayBuilder();
+        insertAccumulator(new JsonBuilderGenerator((JsonArrayBuilder) builder, factory));
+      }
     } else {
       if ("".equals(name)) {
         super.writeStartArray();
@@ -75,8 +211,12 @@ public class AccumulatingGeneratorFilter extends JsonGeneratorFilter {
   @Override
   public JsonGenerator writeStartObject(final String name) {
     if (stack.isEmpty()) {
-      builder = createObjectBuilder();
-      insertAccumulator(new JsonBuilderGenerator((JsonObjectBuilder) builder));
+      startEvent(false);
+
+      if (!startBuffer(false)) {
+        builder = factory != null ? factory.createObjectBuilder() : createObjectBuilder();
+        insertAccumulator(new JsonBuilderGenerator((JsonObjectBuilder) builder, factory));
+      }
     } else {
       if ("".equals(name)) {
         super.writeStartObject();
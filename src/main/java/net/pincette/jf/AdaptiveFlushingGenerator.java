@@ -0,0 +1,339 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.estimateSize;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Duration;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * This filter flushes the next filter element when enough has been written since the previous
+ * flush, instead of after every write like <code>FlushingGenerator</code>. A flush happens when one
+ * of the following is true:
+ *
+ * <ul>
+ *   <li>The estimated number of bytes reaches the maximum, which is 8192 by default.
+ *   <li>The oldest unflushed write is older than the maximum delay. This is only checked when
+ *       something is written.
+ *   <li>The maximum number of completed top-level elements is reached. These are the values in the
+ *       top-level object or array and the top-level values themselves.
+ *   <li>A flush was requested with <code>requestFlush</code> and the current top-level element is
+ *       complete.
+ *   <li>A top-level value is complete. This can be turned off with <code>withFlushRootValues
+ *       </code>, for a stream of many small top-level values such as JSON Lines. They are then
+ *       flushed according to the other rules.
+ * </ul>
+ *
+ * <p>It is meant for streaming results to clients as they are produced, while keeping the number of
+ * flushes low.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class AdaptiveFlushingGenerator extends JsonGeneratorFilter {
+  private int depth;
+  private int elements;
+  private boolean flushRootValues = true;
+  private long maxBytes = 8192;
+  private long maxDelay = -1;
+  private int maxElements;
+  private long pending;
+  private boolean requested;
+  private long since = -1;
+
+  private void completed() {
+    if (depth <= 1) {
+      ++elements;
+
+      if ((depth == 0 && flushRootValues)
+          || requested
+          || (maxElements > 0 && elements >= maxElements)) {
+        flush();
+      }
+    }
+  }
+
+  @Override
+  public void flush() {
+    pending = 0;
+    elements = 0;
+    requested = false;
+    since = -1;
+    super.flush();
+  }
+
+  /**
+   * Asks to flush as soon as the current top-level element is complete. If there is no such
+   * element the flush happens immediately.
+   */
+  public void requestFlush() {
+    if (depth <= 1) {
+      flush();
+    } else {
+      requested = true;
+    }
+  }
+
+  @Override
+  public void reset() {
+    depth = 0;
+    elements = 0;
+    pending = 0;
+    requested = false;
+    since = -1;
+    super.reset();
+  }
+
+  private JsonGenerator scalar(final long bytes) {
+    written(bytes);
+    completed();
+
+    return this;
+  }
+
+  private JsonGenerator start() {
+    written(1);
+    ++depth;
+
+    return this;
+  }
+
+  /**
+   * Sets whether the next filter element is flushed every time a top-level value is complete. The
+   * default is <code>true</code>. Otherwise a top-level value only counts as an element for <code>
+   * withMaxElements</code>, like the values in a top-level array.
+   *
+   * @param flushRootValues the given setting.
+   * @return The filter itself.
+   */
+  public AdaptiveFlushingGenerator withFlushRootValues(final boolean flushRootValues) {
+    this.flushRootValues = flushRootValues;
+
+    return this;
+  }
+
+  /**
+   * Sets the number of bytes after which the next filter element is flushed. The number of bytes
+   * is an estimate.
+   *
+   * @param maxBytes the number of bytes.
+   * @return The filter itself.
+   */
+  public AdaptiveFlushingGenerator withMaxBytes(final long maxBytes) {
+    this.maxBytes = maxBytes;
+
+    return this;
+  }
+
+  /**
+   * Sets the maximum time unflushed data may stay in the next filter element. There is no timer
+   * involved. When nothing is written nothing is flushed either.
+   *
+   * @param maxDelay the maximum delay.
+   * @return The filter itself.
+   */
+  public AdaptiveFlushingGenerator withMaxDelay(final Duration maxDelay) {
+    this.maxDelay = maxDelay.toNanos();
+
+    return this;
+  }
+
+  /**
+   * Sets the number of completed top-level elements after which the next filter element is
+   * flushed. With 1 every element is flushed as soon as it is complete. With 0, which is the
+   * default, elements are not counted.
+   *
+   * @param maxElements the number of elements.
+   * @return The filter itself.
+   */
+  public AdaptiveFlushingGenerator withMaxElements(final int maxElements) {
+    this.maxElements = maxElements;
+
+    return this;
+  }
+
+  private void written(final long bytes) {
+    pending += bytes;
+
+    if (maxDelay >= 0 && since == -1) {
+      since = System.nanoTime();
+    }
+
+    if (pending >= maxBytes || (maxDelay >= 0 && System.nanoTime() - since >= maxDelay)) {
+      flush();
+    }
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    super.write(value);
+
+    return scalar(estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    super.write(value);
+
+    return scalar(value.length() + 2L);
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    super.write(value);
+
+    return scalar(value.precision() + 2L);
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    super.write(value);
+
+    return scalar(value.bitLength() / 3 + 1L);
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    super.write(value);
+
+    return scalar(estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    super.write(value);
+
+    return scalar(estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    super.write(value);
+
+    return scalar(16);
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    super.write(value);
+
+    return scalar(value ? 4 : 5);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    super.write(name, value);
+
+    return scalar(name.length() + 3L + estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final String value) {
+    super.write(name, value);
+
+    return scalar(name.length() + value.length() + 5L);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigInteger value) {
+    super.write(name, value);
+
+    return scalar(name.length() + value.bitLength() / 3 + 4L);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    super.write(name, value);
+
+    return scalar(name.length() + value.precision() + 5L);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final int value) {
+    super.write(name, value);
+
+    return scalar(name.length() + 3L + estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final long value) {
+    super.write(name, value);
+
+    return scalar(name.length() + 3L + estimateSize(value));
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final double value) {
+    super.write(name, value);
+
+    return scalar(name.length() + 19L);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final boolean value) {
+    super.write(name, value);
+
+    return scalar(name.length() + (value ? 7L : 8L));
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    super.writeEnd();
+    --depth;
+
+    return scalar(1);
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    super.writeKey(name);
+    written(name.length() + 3L);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    super.writeNull();
+
+    return scalar(4);
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    super.writeNull(name);
+
+    return scalar(name.length() + 7L);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    super.writeStartArray();
+
+    return start();
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    super.writeStartArray(name);
+    written(name.length() + 3L);
+
+    return start();
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    super.writeStartObject();
+
+    return start();
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    super.writeStartObject(name);
+    written(name.length() + 3L);
+
+    return start();
+  }
+}
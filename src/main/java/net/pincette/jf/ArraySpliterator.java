@@ -0,0 +1,298 @@
+package net.pincette.jf;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static net.pincette.jf.Util.stream;
+import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+import javax.json.JsonValue;
+
+/**
+ * A spliterator over the elements of a top-level array in a byte array or a file. A fast
+ * structural pre-scan, which only tracks strings and nesting, cuts the array into chunks of
+ * complete elements. Splits are made on chunk boundaries and every split parses its own chunks
+ * with its own <code>JacksonParser</code>. If the document is not an array it becomes one chunk,
+ * which yields the document as its only value.
+ *
+ * @author Werner Donn\u00e9
+ */
+class ArraySpliterator implements Spliterator<JsonValue> {
+  private static final int BUFFER_SIZE = 0x100000;
+  private static final long MAX_CHUNK_SIZE = 0x4000000;
+  private static final long MIN_CHUNK_SIZE = 0x10000;
+  private static final byte[] CLOSE = new byte[] {']'};
+  private static final JsonFactory FACTORY = new JsonFactory();
+  private static final byte[] OPEN = new byte[] {'['};
+
+  private final long[] cuts;
+  private int from;
+  private final Source source;
+  private final int to;
+  private com.fasterxml.jackson.core.JsonParser parser;
+  private Iterator<JsonValue> values;
+
+  private ArraySpliterator(final Source source, final long[] cuts, final int from, final int to) {
+    this.source = source;
+    this.cuts = cuts;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * Aims for about 16 chunks per thread of the common pool, within reasonable bounds.
+   *
+   * @param size the size of the document.
+   * @return The chunk size.
+   */
+  static long chunkSize(final long size) {
+    return Math.min(
+        MAX_CHUNK_SIZE,
+        Math.max(MIN_CHUNK_SIZE, size / (ForkJoinPool.getCommonPoolParallelism() * 16L)));
+  }
+
+  static ArraySpliterator of(final byte[] bytes, final long chunkSize) {
+    final Source source =
+        new Source() {
+          public InputStream open(final long start, final long end) {
+            return new ByteArrayInputStream(bytes, (int) start, (int) (end - start));
+          }
+
+          public int read(final ByteBuffer buffer, final long position) {
+            final int length = (int) Math.min(buffer.remaining(), bytes.length - position);
+
+            if (length <= 0) {
+              return -1;
+            }
+
+            buffer.put(bytes, (int) position, length);
+
+            return length;
+          }
+
+          public long size() {
+            return bytes.length;
+          }
+        };
+
+    return of(source, chunkSize);
+  }
+
+  static ArraySpliterator of(final FileChannel channel, final long chunkSize) {
+    final Source source =
+        new Source() {
+          public InputStream open(final long start, final long end) {
+            return channelStream(channel, start, end);
+          }
+
+          public int read(final ByteBuffer buffer, final long position) {
+            return tryToGetRethrow(() -> channel.read(buffer, position)).orElse(-1);
+          }
+
+          public long size() {
+            return tryToGetRethrow(channel::size).orElse(0L);
+          }
+        };
+
+    return of(source, chunkSize);
+  }
+
+  private static ArraySpliterator of(final Source source, final long chunkSize) {
+    final long[] cuts = scan(source, chunkSize);
+
+    return new ArraySpliterator(source, cuts, 0, cuts != null ? cuts.length - 1 : 1);
+  }
+
+  static FileChannel open(final Path path) {
+    return tryToGetRethrow(() -> FileChannel.open(path, READ)).orElse(null);
+  }
+
+  private static InputStream channelStream(
+      final FileChannel channel, final long start, final long end) {
+    return new InputStream() {
+      private long position = start;
+
+      @Override
+      public int read() {
+        final byte[] b = new byte[1];
+
+        return read(b, 0, 1) == -1 ? -1 : (b[0] & 0xff);
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) {
+        if (position >= end) {
+          return -1;
+        }
+
+        final int n =
+            tryToGetRethrow(
+                    () ->
+                        channel.read(
+                            ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)),
+                            position))
+                .orElse(-1);
+
+        if (n > 0) {
+          position += n;
+        }
+
+        return n;
+      }
+    };
+  }
+
+  private static boolean isWhitespace(final byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  /**
+   * Returns the positions of the opening bracket, the commas that separate the chunks and the
+   * closing bracket. The result is <code>null</code> if the document is not an array.
+   */
+  private static long[] scan(final Source source, final long chunkSize) {
+    final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    final LongStream.Builder cuts = LongStream.builder();
+    int depth = 0;
+    boolean escape = false;
+    boolean inString = false;
+    long last = -1;
+    long position = 0;
+
+    for (int n = source.read(buffer, position); n != -1; n = source.read(buffer, position)) {
+      buffer.flip();
+
+      for (int i = 0; i < n; ++i, ++position) {
+        final byte b = buffer.get(i);
+
+        if (last == -1) {
+          if (b == '[') {
+            cuts.add(position);
+            depth = 1;
+            last = position;
+          } else if (!isWhitespace(b)) {
+            return null;
+          }
+        } else if (inString) {
+          if (escape) {
+            escape = false;
+          } else if (b == '\\') {
+            escape = true;
+          } else if (b == '"') {
+            inString = false;
+          }
+        } else {
+          switch (b) {
+            case '"':
+              inString = true;
+              break;
+            case '[':
+            case '{':
+              ++depth;
+              break;
+            case ']':
+            case '}':
+              if (--depth == 0) {
+                return cuts.add(position).build().toArray();
+              }
+              break;
+            case ',':
+              if (depth == 1 && position - last >= chunkSize) {
+                cuts.add(position);
+                last = position;
+              }
+              break;
+            default:
+              break;
+          }
+        }
+      }
+
+      buffer.clear();
+    }
+
+    throw new IllegalStateException("The array is not complete");
+  }
+
+  public int characteristics() {
+    return IMMUTABLE | NONNULL | ORDERED;
+  }
+
+  private void close() {
+    if (parser != null) {
+      tryToDoRethrow(parser::close);
+      parser = null;
+    }
+
+    values = null;
+  }
+
+  public long estimateSize() {
+    return to - from;
+  }
+
+  private Iterator<JsonValue> openChunk() {
+    final InputStream in =
+        cuts != null
+            ? new SequenceInputStream(
+                new SequenceInputStream(
+                    new ByteArrayInputStream(OPEN), source.open(cuts[from] + 1, cuts[from + 1])),
+                new ByteArrayInputStream(CLOSE))
+            : source.open(0, source.size());
+
+    parser = tryToGetRethrow(() -> FACTORY.createParser(in)).orElse(null);
+
+    return stream(new JacksonParser(parser)).iterator();
+  }
+
+  public boolean tryAdvance(final Consumer<? super JsonValue> action) {
+    while (from < to) {
+      if (values == null) {
+        values = openChunk();
+      }
+
+      if (values.hasNext()) {
+        action.accept(values.next());
+
+        return true;
+      }
+
+      close();
+      ++from;
+    }
+
+    return false;
+  }
+
+  public Spliterator<JsonValue> trySplit() {
+    if (values != null || to - from < 2) {
+      return null;
+    }
+
+    final int middle = from + (to - from) / 2;
+    final Spliterator<JsonValue> result = new ArraySpliterator(source, cuts, from, middle);
+
+    from = middle;
+
+    return result;
+  }
+
+  private interface Source {
+    InputStream open(long start, long end);
+
+    int read(ByteBuffer buffer, long position);
+
+    long size();
+  }
+}
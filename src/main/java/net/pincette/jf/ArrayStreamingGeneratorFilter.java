@@ -1,23 +1,74 @@
 package net.pincette.jf;
 
+import javax.json.JsonBuilderFactory;
 import javax.json.stream.JsonGenerator;
 
 /**
  * With this filter the write sequence to the next filter element will be <code>writeStartArray()
- * </code>, a number of <code>write(JsonValue)</code> calls and finally <code>writeEnd()</code>
+ * </code>, a number of <code>write(JsonValue)</code> calls and finally <code>writeEnd()</code>.
+ * With a memory budget an element that is too large is written as its original sequence of
+ * events.
  *
  * @author Werner Donn\u00e9
  */
 public class ArrayStreamingGeneratorFilter extends JsonGeneratorFilter {
-  private boolean started;
+  private AccumulatingGeneratorFilter accumulator;
+  private final long budget;
+  private final JsonBuilderFactory factory;
+
+  public ArrayStreamingGeneratorFilter() {
+    this(null, -1);
+  }
+
+  /**
+   * Creates a filter with a memory budget per element. Elements that are larger are written as a
+   * sequence of events instead of a value.
+   *
+   * @param budget the maximum number of bytes the encoded events of an element may occupy in
+   *     memory. When it is negative there is no limit.
+   * @see AccumulatingGeneratorFilter
+   */
+  public ArrayStreamingGeneratorFilter(final long budget) {
+    this(null, budget);
+  }
+
+  /**
+   * Creates a filter with a builder factory and a memory budget per element.
+   *
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   * @param budget the maximum number of bytes the encoded events of an element may occupy in
+   *     memory. When it is negative there is no limit.
+   * @see AccumulatingGeneratorFilter
+   */
+  public ArrayStreamingGeneratorFilter(final JsonBuilderFactory factory, final long budget) {
+    this.factory = factory;
+    this.budget = budget;
+  }
+
+  /**
+   * Resets the accumulator through the chain and takes it out, because the start of the next
+   * document should bypass it. The accumulator is reused for that document.
+   */
+  @Override
+  public void reset() {
+    super.reset();
+
+    if (accumulator != null) {
+      removeFilter(accumulator);
+    }
+  }
 
   @Override
   public JsonGenerator writeStartArray() {
     super.writeStartArray();
 
-    if (!started) {
-      started = true;
-      insertFilter(new AccumulatingGeneratorFilter());
+    if (accumulator == null) {
+      accumulator = new AccumulatingGeneratorFilter(factory, budget);
+    }
+
+    if (getNext() != accumulator) {
+      insertFilter(accumulator);
     }
 
     return this;
@@ -0,0 +1,211 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.estimateSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Groups the elements of the top array into batches. It is meant to come after an <code>
+ * ArrayStreamingGeneratorFilter</code>, which delivers the elements as values. A batch is complete
+ * when it reaches the maximum number of elements, the maximum estimated size in bytes or the
+ * maximum delay since its first element. The delay is checked when an element arrives and when the
+ * filter is flushed. A batch is written to the next filter element as one array, so the top array
+ * becomes an array of arrays. With a consumer the batches go to the consumer instead and the
+ * elements are not forwarded.
+ *
+ * <p>Elements that arrive as a sequence of events can't be batched. They complete the current
+ * batch and are passed on unchanged. So is everything when the top value is not an array.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class BatchingGeneratorFilter extends JsonGeneratorFilter {
+  private boolean array;
+  private List<JsonValue> batch = new ArrayList<>();
+  private long bytes;
+  private Consumer<List<JsonValue>> consumer;
+  private int depth;
+  private long maxBytes = Long.MAX_VALUE;
+  private long maxDelay = Long.MAX_VALUE;
+  private final int maxElements;
+  private long started;
+
+  /**
+   * Creates a filter that completes a batch when it reaches <code>maxElements</code>.
+   *
+   * @param maxElements the maximum number of elements in a batch.
+   */
+  public BatchingGeneratorFilter(final int maxElements) {
+    this.maxElements = maxElements;
+  }
+
+  private void add(final JsonValue value) {
+    if (batch.isEmpty()) {
+      started = System.nanoTime();
+    }
+
+    batch.add(value);
+
+    if (maxBytes != Long.MAX_VALUE) {
+      bytes += estimateSize(value);
+    }
+
+    if (batch.size() >= maxElements || bytes >= maxBytes || isLate()) {
+      writeBatch();
+    }
+  }
+
+  @Override
+  public void flush() {
+    if (isLate()) {
+      writeBatch();
+    }
+
+    super.flush();
+  }
+
+  private boolean isLate() {
+    return maxDelay != Long.MAX_VALUE
+        && !batch.isEmpty()
+        && System.nanoTime() - started >= maxDelay;
+  }
+
+  private JsonGenerator nested(final Runnable forward, final int change) {
+    if (depth > 0) {
+      writeBatch();
+    }
+
+    depth += change;
+    forward.run();
+
+    return this;
+  }
+
+  @Override
+  public void reset() {
+    array = false;
+    batch = new ArrayList<>();
+    bytes = 0;
+    depth = 0;
+    super.reset();
+  }
+
+  /**
+   * Sets a consumer for the batches, in which case they are not written to the next filter element.
+   *
+   * @param consumer the given consumer.
+   * @return The filter.
+   */
+  public BatchingGeneratorFilter withConsumer(final Consumer<List<JsonValue>> consumer) {
+    this.consumer = consumer;
+
+    return this;
+  }
+
+  /**
+   * Sets the maximum estimated size of a batch.
+   *
+   * @param maxBytes the size in bytes.
+   * @return The filter.
+   */
+  public BatchingGeneratorFilter withMaxBytes(final long maxBytes) {
+    this.maxBytes = maxBytes;
+
+    return this;
+  }
+
+  /**
+   * Sets the maximum time between the first element of a batch and its completion.
+   *
+   * @param maxDelay the given delay.
+   * @return The filter.
+   */
+  public BatchingGeneratorFilter withMaxDelay(final Duration maxDelay) {
+    this.maxDelay = maxDelay.toNanos();
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    if (depth == 1 && array) {
+      add(value);
+
+      return this;
+    }
+
+    return nested(() -> super.write(value), 0);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    return nested(() -> super.write(name, value), 0);
+  }
+
+  private void writeBatch() {
+    if (!batch.isEmpty()) {
+      final List<JsonValue> result = batch;
+
+      batch = new ArrayList<>();
+      bytes = 0;
+
+      if (consumer != null) {
+        consumer.accept(result);
+      } else {
+        super.write(new CompactArray(result.toArray(new JsonValue[0]), result.size()));
+      }
+    }
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    return nested(super::writeEnd, -1);
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    return nested(() -> super.writeKey(name), 0);
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    return write(JsonValue.NULL);
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    return nested(() -> super.writeNull(name), 0);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    if (depth == 0) {
+      array = true;
+    }
+
+    return nested(super::writeStartArray, 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    return nested(() -> super.writeStartArray(name), 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    if (depth == 0) {
+      array = false;
+    }
+
+    return nested(super::writeStartObject, 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    return nested(() -> super.writeStartObject(name), 1);
+  }
+}
@@ -0,0 +1,44 @@
+package net.pincette.jf;
+
+import static com.fasterxml.jackson.dataformat.smile.SmileGenerator.Feature.CHECK_SHARED_NAMES;
+import static com.fasterxml.jackson.dataformat.smile.SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The shared Jackson factories for the binary formats. Sharing them lets the parsers reuse the key
+ * name symbol tables. Smile output uses back-references for repeated key names and short string
+ * values.
+ *
+ * <p>The dependencies on the binary formats are optional. Each factory lives in its own holder
+ * class and is exposed as a plain <code>JsonFactory</code>, so the classes of a format are only
+ * loaded when it is used. A format's jar is then only needed by applications that call the
+ * <code>cbor</code> or <code>smile</code> methods of the parser and the generator.
+ *
+ * @author Werner Donn\u00e9
+ */
+class BinaryFormats {
+  private BinaryFormats() {}
+
+  static JsonFactory cbor() {
+    return Cbor.FACTORY;
+  }
+
+  static JsonFactory smile() {
+    return Smile.FACTORY;
+  }
+
+  private static class Cbor {
+    private static final JsonFactory FACTORY = new CBORFactory();
+  }
+
+  private static class Smile {
+    private static final JsonFactory FACTORY =
+        SmileFactory.builder()
+            .enable(CHECK_SHARED_NAMES)
+            .enable(CHECK_SHARED_STRING_VALUES)
+            .build();
+  }
+}
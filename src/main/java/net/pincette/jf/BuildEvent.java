@@ -0,0 +1,28 @@
+package net.pincette.jf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for the materialization of the result of a <code>JsonBuilderGenerator</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@Name("net.pincette.jf.Build")
+@Label("JSON Build")
+@Category("JSON")
+@Description("Builds the value that was accumulated in a JsonBuilderGenerator")
+class BuildEvent extends Event {
+  @Label("Depth")
+  int depth;
+
+  @Label("Size")
+  @Description("The number of entries or elements")
+  int size;
+
+  @Label("Type")
+  String type;
+}
@@ -0,0 +1,80 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.writeEvent;
+
+import java.util.function.Supplier;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+
+/**
+ * Runs input through a filter chain and records the output in an <code>EventBuffer</code>, which
+ * can be replayed later on another thread. A runner is reused for many inputs, but it isn't thread
+ * safe, so every worker thread should have its own.
+ *
+ * @author Werner Donn\u00e9
+ */
+class ChainRunner {
+  private static final long BUDGET = 0x4000000L;
+
+  private final JsonGeneratorFilter head;
+  private final JsonGeneratorFilter sink = new JsonGeneratorFilter();
+
+  /**
+   * Creates a runner with a new chain.
+   *
+   * @param chain produces the filter chain. Its last element should not have a successor yet. It
+   *     may be <code>null</code>, in which case the values are passed unchanged.
+   */
+  ChainRunner(final Supplier<JsonGeneratorFilter> chain) {
+    head = new JsonLinesGeneratorFilter();
+
+    if (chain != null) {
+      head.thenApply(chain.get());
+    }
+
+    head.thenApply(sink);
+  }
+
+  private EventBuffer run(final Runnable write) {
+    final EventBuffer buffer = new EventBuffer(BUDGET);
+
+    sink.setNext(buffer);
+
+    try {
+      write.run();
+    } catch (RuntimeException e) {
+      buffer.close();
+      throw e;
+    } finally {
+      head.reset();
+      sink.setNext(null);
+    }
+
+    return buffer;
+  }
+
+  /**
+   * Runs all the root values of <code>parser</code> through the chain.
+   *
+   * @param parser the given parser.
+   * @return The recorded output.
+   */
+  EventBuffer run(final JsonParser parser) {
+    return run(
+        () -> {
+          while (parser.hasNext()) {
+            writeEvent(parser.next(), parser, head);
+          }
+        });
+  }
+
+  /**
+   * Runs <code>value</code> through the chain.
+   *
+   * @param value the given value.
+   * @return The recorded output.
+   */
+  EventBuffer run(final JsonValue value) {
+    return run(() -> head.write(value));
+  }
+}
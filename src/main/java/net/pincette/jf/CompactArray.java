@@ -0,0 +1,113 @@
+package net.pincette.jf;
+
+import static javax.json.JsonValue.FALSE;
+import static javax.json.JsonValue.NULL;
+import static javax.json.JsonValue.TRUE;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * An immutable JSON array that is backed by a flat array, which is not copied.
+ *
+ * @author Werner Donn\u00e9
+ */
+class CompactArray extends AbstractList<JsonValue> implements JsonArray, RandomAccess {
+  private final int size;
+  private final JsonValue[] values;
+
+  CompactArray(final JsonValue[] values, final int size) {
+    this.values = values;
+    this.size = size;
+  }
+
+  @Override
+  public JsonValue get(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(String.valueOf(index));
+    }
+
+    return values[index];
+  }
+
+  public boolean getBoolean(final int index) {
+    final JsonValue value = get(index);
+
+    if (value != TRUE && value != FALSE) {
+      throw new ClassCastException(String.valueOf(index));
+    }
+
+    return value == TRUE;
+  }
+
+  public boolean getBoolean(final int index, final boolean defaultValue) {
+    final JsonValue value = index >= 0 && index < size ? values[index] : null;
+
+    return value == TRUE || (value != FALSE && defaultValue);
+  }
+
+  public int getInt(final int index) {
+    return getJsonNumber(index).intValue();
+  }
+
+  public int getInt(final int index, final int defaultValue) {
+    final JsonValue value = index >= 0 && index < size ? values[index] : null;
+
+    return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+  }
+
+  public JsonArray getJsonArray(final int index) {
+    return (JsonArray) get(index);
+  }
+
+  public JsonNumber getJsonNumber(final int index) {
+    return (JsonNumber) get(index);
+  }
+
+  public JsonObject getJsonObject(final int index) {
+    return (JsonObject) get(index);
+  }
+
+  public JsonString getJsonString(final int index) {
+    return (JsonString) get(index);
+  }
+
+  public String getString(final int index) {
+    return getJsonString(index).getString();
+  }
+
+  public String getString(final int index, final String defaultValue) {
+    final JsonValue value = index >= 0 && index < size ? values[index] : null;
+
+    return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+  }
+
+  public ValueType getValueType() {
+    return ValueType.ARRAY;
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T extends JsonValue> List<T> getValuesAs(final Class<T> clazz) {
+    return (List<T>) this;
+  }
+
+  public boolean isNull(final int index) {
+    return get(index).equals(NULL);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return Provider.toString(this);
+  }
+}
@@ -0,0 +1,98 @@
+package net.pincette.jf;
+
+import static java.util.Objects.requireNonNull;
+import static javax.json.JsonValue.FALSE;
+import static javax.json.JsonValue.NULL;
+import static javax.json.JsonValue.TRUE;
+import static net.pincette.jf.Provider.createValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Builds a <code>CompactArray</code>. The array is handed over to the result, after which the
+ * builder starts from scratch.
+ *
+ * @author Werner Donn\u00e9
+ */
+class CompactArrayBuilder implements JsonArrayBuilder {
+  private static final int INITIAL = 8;
+
+  private int size;
+  private JsonValue[] values;
+
+  public JsonArrayBuilder add(final JsonValue value) {
+    requireNonNull(value);
+
+    if (values == null) {
+      values = new JsonValue[INITIAL];
+    } else if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+
+    values[size++] = value;
+
+    return this;
+  }
+
+  public JsonArrayBuilder add(final String value) {
+    return add(createValue(requireNonNull(value)));
+  }
+
+  public JsonArrayBuilder add(final BigDecimal value) {
+    return add(createValue(requireNonNull(value)));
+  }
+
+  public JsonArrayBuilder add(final BigInteger value) {
+    return add(createValue(requireNonNull(value)));
+  }
+
+  public JsonArrayBuilder add(final int value) {
+    return add(createValue(value));
+  }
+
+  public JsonArrayBuilder add(final long value) {
+    return add(createValue(value));
+  }
+
+  public JsonArrayBuilder add(final double value) {
+    return add(createValue(value));
+  }
+
+  public JsonArrayBuilder add(final boolean value) {
+    return add(value ? TRUE : FALSE);
+  }
+
+  public JsonArrayBuilder add(final JsonObjectBuilder builder) {
+    return add(builder.build());
+  }
+
+  public JsonArrayBuilder add(final JsonArrayBuilder builder) {
+    return add(builder.build());
+  }
+
+  @Override
+  public JsonArrayBuilder addAll(final JsonArrayBuilder builder) {
+    builder.build().forEach(this::add);
+
+    return this;
+  }
+
+  public JsonArrayBuilder addNull() {
+    return add(NULL);
+  }
+
+  public JsonArray build() {
+    final JsonArray result = new CompactArray(values != null ? values : new JsonValue[0], size);
+
+    values = null;
+    size = 0;
+
+    return result;
+  }
+}
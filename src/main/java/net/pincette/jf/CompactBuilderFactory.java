@@ -0,0 +1,51 @@
+package net.pincette.jf;
+
+import static java.util.Collections.emptyMap;
+
+import java.util.Map;
+import javax.json.JsonArray;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+/**
+ * A builder factory that produces compact immutable objects and arrays. They keep their contents
+ * in flat arrays, which are not copied when the value is built. Small objects are searched
+ * linearly. You can give it to <code>JsonBuilderGenerator</code>, <code>
+ * AccumulatingGeneratorFilter</code> and the <code>getObject</code> and <code>getArray</code>
+ * methods in <code>Util</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class CompactBuilderFactory implements JsonBuilderFactory {
+  public JsonArrayBuilder createArrayBuilder() {
+    return new CompactArrayBuilder();
+  }
+
+  @Override
+  public JsonArrayBuilder createArrayBuilder(final JsonArray array) {
+    final JsonArrayBuilder result = createArrayBuilder();
+
+    array.forEach(result::add);
+
+    return result;
+  }
+
+  public JsonObjectBuilder createObjectBuilder() {
+    return new CompactObjectBuilder();
+  }
+
+  @Override
+  public JsonObjectBuilder createObjectBuilder(final JsonObject object) {
+    final JsonObjectBuilder result = createObjectBuilder();
+
+    object.forEach(result::add);
+
+    return result;
+  }
+
+  public Map<String, ?> getConfigInUse() {
+    return emptyMap();
+  }
+}
@@ -0,0 +1,256 @@
+package net.pincette.jf;
+
+import static javax.json.JsonValue.FALSE;
+import static javax.json.JsonValue.NULL;
+import static javax.json.JsonValue.TRUE;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * An immutable JSON object that keeps its keys and values in two flat arrays. Small objects are
+ * searched linearly. Larger ones get an open addressing index with linear probing, which is only
+ * an array of integers.
+ *
+ * @author Werner Donn\u00e9
+ */
+class CompactObject extends AbstractMap<String, JsonValue> implements JsonObject {
+  private static final int LINEAR = 8;
+
+  private final int[] index;
+  private final String[] keys;
+  private final int size;
+  private final JsonValue[] values;
+
+  private CompactObject(
+      final String[] keys, final JsonValue[] values, final int size, final int[] index) {
+    this.keys = keys;
+    this.values = values;
+    this.size = size;
+    this.index = index;
+  }
+
+  /**
+   * Creates an object without copying the arrays. When a key occurs more than once the last value
+   * wins, in the position of the first occurrence.
+   */
+  static CompactObject of(final String[] keys, final JsonValue[] values, final int size) {
+    if (size <= LINEAR) {
+      return new CompactObject(keys, values, removeDuplicates(keys, values, size), null);
+    }
+
+    final int[] index = index(keys, size);
+
+    if (index == null) {
+      final Map<String, JsonValue> map = new LinkedHashMap<>();
+
+      for (int i = 0; i < size; ++i) {
+        map.put(keys[i], values[i]);
+      }
+
+      return of(
+          map.keySet().toArray(new String[0]), map.values().toArray(new JsonValue[0]), map.size());
+    }
+
+    return new CompactObject(keys, values, size, index);
+  }
+
+  private static int hash(final String key) {
+    final int h = key.hashCode();
+
+    return h ^ (h >>> 16);
+  }
+
+  /** Returns <code>null</code> when there are duplicate keys. */
+  private static int[] index(final String[] keys, final int size) {
+    final int[] result = new int[Integer.highestOneBit(size) << 2];
+    final int mask = result.length - 1;
+
+    for (int i = 0; i < size; ++i) {
+      int slot = hash(keys[i]) & mask;
+
+      for (; result[slot] != 0; slot = (slot + 1) & mask) {
+        if (keys[result[slot] - 1].equals(keys[i])) {
+          return null;
+        }
+      }
+
+      result[slot] = i + 1;
+    }
+
+    return result;
+  }
+
+  private static int removeDuplicates(
+      final String[] keys, final JsonValue[] values, final int size) {
+    int result = 0;
+
+    for (int i = 0; i < size; ++i) {
+      int j = 0;
+
+      while (j < result && !keys[j].equals(keys[i])) {
+        ++j;
+      }
+
+      if (j < result) {
+        values[j] = values[i];
+      } else {
+        keys[result] = keys[i];
+        values[result++] = values[i];
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public boolean containsKey(final Object key) {
+    return key instanceof String && position((String) key) != -1;
+  }
+
+  @Override
+  public Set<Entry<String, JsonValue>> entrySet() {
+    return new AbstractSet<Entry<String, JsonValue>>() {
+      @Override
+      public Iterator<Entry<String, JsonValue>> iterator() {
+        return new Iterator<Entry<String, JsonValue>>() {
+          private int position;
+
+          @Override
+          public boolean hasNext() {
+            return position < size;
+          }
+
+          @Override
+          public Entry<String, JsonValue> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            final int i = position++;
+
+            return new SimpleImmutableEntry<>(keys[i], values[i]);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public JsonValue get(final Object key) {
+    final int position = key instanceof String ? position((String) key) : -1;
+
+    return position != -1 ? values[position] : null;
+  }
+
+  public boolean getBoolean(final String name) {
+    final JsonValue value = get(name);
+
+    if (value == null) {
+      throw new NullPointerException(name);
+    }
+
+    if (value != TRUE && value != FALSE) {
+      throw new ClassCastException(name);
+    }
+
+    return value == TRUE;
+  }
+
+  public boolean getBoolean(final String name, final boolean defaultValue) {
+    final JsonValue value = get(name);
+
+    return value == TRUE || (value != FALSE && defaultValue);
+  }
+
+  public int getInt(final String name) {
+    return getJsonNumber(name).intValue();
+  }
+
+  public int getInt(final String name, final int defaultValue) {
+    final JsonValue value = get(name);
+
+    return value instanceof JsonNumber ? ((JsonNumber) value).intValue() : defaultValue;
+  }
+
+  public JsonArray getJsonArray(final String name) {
+    return (JsonArray) get(name);
+  }
+
+  public JsonNumber getJsonNumber(final String name) {
+    return (JsonNumber) get(name);
+  }
+
+  public JsonObject getJsonObject(final String name) {
+    return (JsonObject) get(name);
+  }
+
+  public JsonString getJsonString(final String name) {
+    return (JsonString) get(name);
+  }
+
+  public String getString(final String name) {
+    return getJsonString(name).getString();
+  }
+
+  public String getString(final String name, final String defaultValue) {
+    final JsonValue value = get(name);
+
+    return value instanceof JsonString ? ((JsonString) value).getString() : defaultValue;
+  }
+
+  public ValueType getValueType() {
+    return ValueType.OBJECT;
+  }
+
+  public boolean isNull(final String name) {
+    return get(name).equals(NULL);
+  }
+
+  private int position(final String key) {
+    if (index == null) {
+      for (int i = 0; i < size; ++i) {
+        if (keys[i].equals(key)) {
+          return i;
+        }
+      }
+
+      return -1;
+    }
+
+    final int mask = index.length - 1;
+
+    for (int slot = hash(key) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+      if (keys[index[slot] - 1].equals(key)) {
+        return index[slot] - 1;
+      }
+    }
+
+    return -1;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return Provider.toString(this);
+  }
+}
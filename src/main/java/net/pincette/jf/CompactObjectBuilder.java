@@ -0,0 +1,128 @@
+package net.pincette.jf;
+
+import static java.util.Objects.requireNonNull;
+import static javax.json.JsonValue.FALSE;
+import static javax.json.JsonValue.NULL;
+import static javax.json.JsonValue.TRUE;
+import static net.pincette.jf.Provider.createValue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+/**
+ * Builds a <code>CompactObject</code>. The arrays are handed over to the object, after which the
+ * builder starts from scratch.
+ *
+ * @author Werner Donn\u00e9
+ */
+class CompactObjectBuilder implements JsonObjectBuilder {
+  private static final int INITIAL = 8;
+
+  private String[] keys;
+  private int size;
+  private JsonValue[] values;
+
+  public JsonObjectBuilder add(final String name, final JsonValue value) {
+    requireNonNull(name);
+    requireNonNull(value);
+
+    if (keys == null) {
+      keys = new String[INITIAL];
+      values = new JsonValue[INITIAL];
+    } else if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      values = Arrays.copyOf(values, size * 2);
+    }
+
+    keys[size] = name;
+    values[size++] = value;
+
+    return this;
+  }
+
+  public JsonObjectBuilder add(final String name, final String value) {
+    return add(name, createValue(requireNonNull(value)));
+  }
+
+  public JsonObjectBuilder add(final String name, final BigInteger value) {
+    return add(name, createValue(requireNonNull(value)));
+  }
+
+  public JsonObjectBuilder add(final String name, final BigDecimal value) {
+    return add(name, createValue(requireNonNull(value)));
+  }
+
+  public JsonObjectBuilder add(final String name, final int value) {
+    return add(name, createValue(value));
+  }
+
+  public JsonObjectBuilder add(final String name, final long value) {
+    return add(name, createValue(value));
+  }
+
+  public JsonObjectBuilder add(final String name, final double value) {
+    return add(name, createValue(value));
+  }
+
+  public JsonObjectBuilder add(final String name, final boolean value) {
+    return add(name, value ? TRUE : FALSE);
+  }
+
+  public JsonObjectBuilder add(final String name, final JsonObjectBuilder builder) {
+    return add(name, builder.build());
+  }
+
+  public JsonObjectBuilder add(final String name, final JsonArrayBuilder builder) {
+    return add(name, builder.build());
+  }
+
+  @Override
+  public JsonObjectBuilder addAll(final JsonObjectBuilder builder) {
+    builder.build().forEach(this::add);
+
+    return this;
+  }
+
+  public JsonObjectBuilder addNull(final String name) {
+    return add(name, NULL);
+  }
+
+  public JsonObject build() {
+    final JsonObject result =
+        keys == null
+            ? CompactObject.of(new String[0], new JsonValue[0], 0)
+            : CompactObject.of(keys, values, size);
+
+    keys = null;
+    values = null;
+    size = 0;
+
+    return result;
+  }
+
+  @Override
+  public JsonObjectBuilder remove(final String name) {
+    int kept = 0;
+
+    for (int i = 0; i < size; ++i) {
+      if (!keys[i].equals(name)) {
+        keys[kept] = keys[i];
+        values[kept++] = values[i];
+      }
+    }
+
+    if (keys != null) {
+      Arrays.fill(keys, kept, size, null);
+      Arrays.fill(values, kept, size, null);
+    }
+
+    size = kept;
+
+    return this;
+  }
+}
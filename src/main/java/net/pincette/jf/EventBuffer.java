@@ -0,0 +1,641 @@
+package net.pincette.jf;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.DELETE_ON_CLOSE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Records a stream of generator events in a compact binary encoding. As long as the encoding stays
+ * within the budget it is kept in memory. Beyond that everything goes to a temporary file, which
+ * is read back through memory mapped segments. A segment is unmapped as soon as the reader has
+ * moved past it, so at most one is mapped at a time. Where the JVM doesn't allow that, the segments
+ * are released by the garbage collector. The recorded events can be replayed into another
+ * generator or be turned into a value.
+ *
+ * @author Werner Donn\u00e9
+ */
+class EventBuffer implements JsonGenerator {
+  private static final byte BIG_DECIMAL = 0;
+  private static final byte BIG_INTEGER = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte END = 3;
+  private static final byte FALSE_VALUE = 4;
+  private static final byte INTEGER = 5;
+  private static final byte KEY = 6;
+  private static final byte NULL_VALUE = 7;
+  private static final byte START_ARRAY = 8;
+  private static final byte START_OBJECT = 9;
+  private static final byte STRING = 10;
+  private static final byte TRUE_VALUE = 11;
+  private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+  private static final long SEGMENT = 0x4000000L;
+  private static final int SPILL_BUFFER = 0x10000;
+  private static final MethodHandle UNMAP = unmapper();
+
+  private byte[] buffer = new byte[256];
+  private final long budget;
+  private FileChannel file;
+  private int size;
+
+  EventBuffer(final long budget) {
+    this.budget = budget;
+  }
+
+  /** Releases the temporary file if there is one. */
+  public void close() {
+    if (file != null) {
+      tryToDoRethrow(file::close);
+      file = null;
+    }
+  }
+
+  private void ensure(final int length) {
+    if (file == null && size + length > budget) {
+      spill();
+    }
+
+    if (size + length > buffer.length) {
+      if (file != null) {
+        flushBuffer();
+
+        if (length > buffer.length) {
+          buffer = new byte[length];
+        }
+      } else {
+        buffer =
+            Arrays.copyOf(
+                buffer,
+                (int)
+                    Math.min(
+                        Math.max(buffer.length * 2L, (long) size + length),
+                        Math.min(budget, MAX_ARRAY)));
+      }
+    }
+  }
+
+  public void flush() {
+    // Nothing to do.
+  }
+
+  private void flushBuffer() {
+    final ByteBuffer b = ByteBuffer.wrap(buffer, 0, size);
+
+    tryToDoRethrow(
+        () -> {
+          while (b.hasRemaining()) {
+            file.write(b);
+          }
+        });
+
+    size = 0;
+  }
+
+  /**
+   * Returns the number of bytes of the recorded events.
+   *
+   * @return The number of bytes.
+   */
+  long length() {
+    return (file != null ? tryToGetRethrow(file::position).orElse(0L) : 0L) + size;
+  }
+
+  /**
+   * Tells if the events went to a temporary file.
+   *
+   * @return Whether the buffer spilled.
+   */
+  boolean isSpilled() {
+    return file != null;
+  }
+
+  private void put(final byte b) {
+    ensure(1);
+    buffer[size++] = b;
+  }
+
+  private void put(final byte tag, final String s) {
+    final byte[] bytes = s.getBytes(UTF_8);
+
+    ensure(1 + 5 + bytes.length);
+    buffer[size++] = tag;
+    putVarLong(bytes.length);
+    System.arraycopy(bytes, 0, buffer, size, bytes.length);
+    size += bytes.length;
+  }
+
+  private void putLong(final byte tag, final long value) {
+    ensure(1 + 10);
+    buffer[size++] = tag;
+    putVarLong((value << 1) ^ (value >> 63));
+  }
+
+  private void putVarLong(final long value) {
+    long v = value;
+
+    while ((v & ~0x7fL) != 0) {
+      buffer[size++] = (byte) ((v & 0x7f) | 0x80);
+      v >>>= 7;
+    }
+
+    buffer[size++] = (byte) v;
+  }
+
+  /**
+   * Writes the recorded events to <code>generator</code>.
+   *
+   * @param generator the given generator.
+   * @param name the key for the first event. It may be <code>null</code>.
+   * @return The generator.
+   */
+  JsonGenerator replay(final JsonGenerator generator, final String name) {
+    if (file != null) {
+      flushBuffer();
+    }
+
+    new Reader(
+            file != null
+                ? new Segments(file)
+                : new Segments(ByteBuffer.wrap(buffer, 0, size)))
+        .replay(generator, name);
+
+    return generator;
+  }
+
+  /** Moves the buffer to a temporary file, which is deleted when it is closed. */
+  private void spill() {
+    final Path path =
+        tryToGetRethrow(() -> Files.createTempFile("pincette-jsonfilter", ".events"))
+            .orElseThrow(() -> new JsonException("Can't create a temporary file"));
+
+    try {
+      file =
+          tryToGetRethrow(() -> FileChannel.open(path, READ, WRITE, DELETE_ON_CLOSE))
+              .orElseThrow(() -> new JsonException("Can't open a temporary file"));
+    } finally {
+      if (file == null) {
+        tryToDoRethrow(() -> Files.deleteIfExists(path));
+      }
+    }
+
+    flushBuffer();
+
+    if (buffer.length < SPILL_BUFFER) {
+      buffer = new byte[SPILL_BUFFER];
+    }
+  }
+
+  /**
+   * Builds the recorded value.
+   *
+   * @param factory the builder factory. It may be <code>null</code>.
+   * @return The value.
+   */
+  JsonStructure toValue(final JsonBuilderFactory factory) {
+    return ((JsonBuilderGenerator) replay(new JsonBuilderGenerator(factory), null)).build();
+  }
+
+  private static void unmap(final ByteBuffer buffer) {
+    if (UNMAP != null && buffer.isDirect()) {
+      try {
+        UNMAP.invokeExact(buffer);
+      } catch (Throwable e) {
+        throw new JsonException(e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Returns <code>Unsafe.invokeCleaner</code> bound to the <code>Unsafe</code> instance, or <code>
+   * null</code> when it isn't available.
+   */
+  private static MethodHandle unmapper() {
+    try {
+      final Class<?> type = Class.forName("sun.misc.Unsafe");
+      final Field field = type.getDeclaredField("theUnsafe");
+
+      field.setAccessible(true);
+
+      return MethodHandles.lookup()
+          .findVirtual(type, "invokeCleaner", methodType(void.class, ByteBuffer.class))
+          .bindTo(field.get(null));
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  public JsonGenerator write(final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+        writeStartArray();
+        value.asJsonArray().forEach(this::write);
+        writeEnd();
+        break;
+      case FALSE:
+        put(FALSE_VALUE);
+        break;
+      case NULL:
+        put(NULL_VALUE);
+        break;
+      case NUMBER:
+        writeNumber((JsonNumber) value);
+        break;
+      case OBJECT:
+        writeStartObject();
+        value.asJsonObject().forEach(this::write);
+        writeEnd();
+        break;
+      case STRING:
+        write(((JsonString) value).getString());
+        break;
+      case TRUE:
+        put(TRUE_VALUE);
+        break;
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String value) {
+    put(STRING, value);
+
+    return this;
+  }
+
+  public JsonGenerator write(final BigDecimal value) {
+    put(BIG_DECIMAL, value.toString());
+
+    return this;
+  }
+
+  public JsonGenerator write(final BigInteger value) {
+    if (value.bitLength() < 64) {
+      return write(value.longValue());
+    }
+
+    put(BIG_INTEGER, value.toString());
+
+    return this;
+  }
+
+  public JsonGenerator write(final int value) {
+    return write((long) value);
+  }
+
+  public JsonGenerator write(final long value) {
+    putLong(INTEGER, value);
+
+    return this;
+  }
+
+  public JsonGenerator write(final double value) {
+    final long bits = Double.doubleToRawLongBits(value);
+
+    ensure(9);
+    buffer[size++] = DOUBLE;
+
+    for (int i = 56; i >= 0; i -= 8) {
+      buffer[size++] = (byte) (bits >>> i);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final boolean value) {
+    put(value ? TRUE_VALUE : FALSE_VALUE);
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final JsonValue value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final String value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final BigInteger value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final int value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final long value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final double value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator write(final String name, final boolean value) {
+    return writeKey(name).write(value);
+  }
+
+  public JsonGenerator writeEnd() {
+    put(END);
+
+    return this;
+  }
+
+  public JsonGenerator writeKey(final String name) {
+    put(KEY, name);
+
+    return this;
+  }
+
+  public JsonGenerator writeNull() {
+    put(NULL_VALUE);
+
+    return this;
+  }
+
+  public JsonGenerator writeNull(final String name) {
+    return writeKey(name).writeNull();
+  }
+
+  private void writeNumber(final JsonNumber number) {
+    if (number.isIntegral()) {
+      write(number.bigIntegerValue());
+    } else {
+      write(number.bigDecimalValue());
+    }
+  }
+
+  public JsonGenerator writeStartArray() {
+    put(START_ARRAY);
+
+    return this;
+  }
+
+  public JsonGenerator writeStartArray(final String name) {
+    return writeKey(name).writeStartArray();
+  }
+
+  public JsonGenerator writeStartObject() {
+    put(START_OBJECT);
+
+    return this;
+  }
+
+  public JsonGenerator writeStartObject(final String name) {
+    return writeKey(name).writeStartObject();
+  }
+
+  private static class Reader {
+    private String name;
+    private final Segments segments;
+
+    private Reader(final Segments segments) {
+      this.segments = segments;
+    }
+
+    private String getString() {
+      final byte[] bytes = new byte[(int) segments.getVarLong()];
+
+      segments.get(bytes);
+
+      return new String(bytes, UTF_8);
+    }
+
+    private void replay(final JsonGenerator generator, final String initialName) {
+      name = initialName;
+
+      try {
+        while (segments.hasRemaining()) {
+          replay(segments.get(), generator);
+        }
+      } finally {
+        segments.release();
+      }
+    }
+
+    private void replay(final byte tag, final JsonGenerator generator) {
+      switch (tag) {
+        case BIG_DECIMAL:
+          value(generator, new BigDecimal(getString()));
+          break;
+        case BIG_INTEGER:
+          value(generator, new BigInteger(getString()));
+          break;
+        case DOUBLE:
+          value(generator, Double.longBitsToDouble(segments.getLong()));
+          break;
+        case END:
+          generator.writeEnd();
+          break;
+        case FALSE_VALUE:
+          value(generator, false);
+          break;
+        case INTEGER:
+          final long v = segments.getVarLong();
+
+          value(generator, (v >>> 1) ^ -(v & 1));
+          break;
+        case KEY:
+          name = getString();
+          return;
+        case NULL_VALUE:
+          if (name != null) {
+            generator.writeNull(name);
+          } else {
+            generator.writeNull();
+          }
+          break;
+        case START_ARRAY:
+          if (name != null) {
+            generator.writeStartArray(name);
+          } else {
+            generator.writeStartArray();
+          }
+          break;
+        case START_OBJECT:
+          if (name != null) {
+            generator.writeStartObject(name);
+          } else {
+            generator.writeStartObject();
+          }
+          break;
+        case STRING:
+          value(generator, getString());
+          break;
+        case TRUE_VALUE:
+          value(generator, true);
+          break;
+        default:
+          throw new JsonException("Corrupt event buffer");
+      }
+
+      name = null;
+    }
+
+    private void value(final JsonGenerator generator, final BigDecimal value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+
+    private void value(final JsonGenerator generator, final BigInteger value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+
+    private void value(final JsonGenerator generator, final boolean value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+
+    private void value(final JsonGenerator generator, final double value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+
+    private void value(final JsonGenerator generator, final long value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+
+    private void value(final JsonGenerator generator, final String value) {
+      if (name != null) {
+        generator.write(name, value);
+      } else {
+        generator.write(value);
+      }
+    }
+  }
+
+  /** Reads a byte buffer or a file through memory mapped segments. */
+  private static class Segments {
+    private ByteBuffer current;
+    private final FileChannel file;
+    private long position;
+    private final long size;
+
+    private Segments(final ByteBuffer buffer) {
+      current = buffer;
+      file = null;
+      size = buffer.remaining();
+      position = size;
+    }
+
+    private Segments(final FileChannel file) {
+      this.file = file;
+      size = tryToGetRethrow(file::size).orElse(0L);
+      current = ByteBuffer.allocate(0);
+    }
+
+    private byte get() {
+      if (!current.hasRemaining()) {
+        next();
+      }
+
+      return current.get();
+    }
+
+    private void get(final byte[] bytes) {
+      for (int offset = 0; offset < bytes.length; ) {
+        if (!current.hasRemaining()) {
+          next();
+        }
+
+        final int length = Math.min(bytes.length - offset, current.remaining());
+
+        current.get(bytes, offset, length);
+        offset += length;
+      }
+    }
+
+    private long getLong() {
+      long result = 0;
+
+      for (int i = 0; i < 8; ++i) {
+        result = (result << 8) | (get() & 0xff);
+      }
+
+      return result;
+    }
+
+    private long getVarLong() {
+      long result = 0;
+
+      for (int shift = 0; ; shift += 7) {
+        final byte b = get();
+
+        result |= (long) (b & 0x7f) << shift;
+
+        if ((b & 0x80) == 0) {
+          return result;
+        }
+      }
+    }
+
+    private boolean hasRemaining() {
+      return current.hasRemaining() || position < size;
+    }
+
+    private void next() {
+      if (position >= size) {
+        throw new JsonException("Unexpected end of event buffer");
+      }
+
+      final long length = Math.min(SEGMENT, size - position);
+
+      release();
+      current =
+          tryToGetRethrow(() -> (ByteBuffer) file.map(READ_ONLY, position, length))
+              .orElseThrow(() -> new JsonException("Can't map the event buffer"));
+      position += length;
+    }
+
+    /** Unmaps the current segment. It may not be used anymore after this. */
+    private void release() {
+      if (file != null) {
+        unmap(current);
+        current = ByteBuffer.allocate(0);
+      }
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.JsonGeneratorFilter.overrides;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Builds a filter chain in one pass, as an alternative to a sequence of <code>thenApply</code>
+ * calls, which each walk the chain that was built so far. You can use it as follows:
+ *
+ * <p>{@code new FilterChain().add(new JsonGeneratorFilter()) ... .build(new JsonGenerator())}
+ *
+ * <p>The chain is fused when it is built. Filters that don't override any of the <code>
+ * JsonGenerator</code> methods would only pass events through, so they are left out. The other
+ * filters are linked directly to each other. Every remaining filter still calls its successor
+ * itself, because it decides on its own what to forward and when, and it may change its successor
+ * while the chain runs. So the per-event cost still grows with the number of filters that remain.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class FilterChain {
+  private static final Method[] GENERATOR_METHODS = JsonGenerator.class.getMethods();
+  private static final ClassValue<Boolean> PASS_THROUGH =
+      new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+          return Stream.of(GENERATOR_METHODS)
+              .noneMatch(m -> overrides(type, m.getName(), m.getParameterTypes()));
+        }
+      };
+
+  private final List<JsonGeneratorFilter> filters = new ArrayList<>();
+
+  /**
+   * Returns <code>true</code> if the filter would only pass events through to the next element.
+   *
+   * @param filter the given filter.
+   * @return Whether the filter can be left out of a chain.
+   */
+  public static boolean isPassThrough(final JsonGeneratorFilter filter) {
+    return PASS_THROUGH.get(filter.getClass());
+  }
+
+  /**
+   * Appends a filter to the chain.
+   *
+   * @param filter the given filter.
+   * @return The chain builder.
+   */
+  public FilterChain add(final JsonGeneratorFilter filter) {
+    filters.add(filter);
+
+    return this;
+  }
+
+  /**
+   * Fuses the filters and links the last one to <code>generator</code>. A filter that already has
+   * a next element gets <code>generator</code> appended at the end of its own chain.
+   *
+   * @param generator the generator that receives the output of the chain.
+   * @return The first element of the fused chain, which is <code>generator</code> itself when no
+   *     filter remains.
+   */
+  public JsonGenerator build(final JsonGenerator generator) {
+    JsonGenerator result = generator;
+
+    for (int i = filters.size() - 1; i >= 0; --i) {
+      final JsonGeneratorFilter filter = filters.get(i);
+
+      if (filter.hasNext() || !isPassThrough(filter)) {
+        result = filter.thenApply(result);
+      }
+    }
+
+    return result;
+  }
+}
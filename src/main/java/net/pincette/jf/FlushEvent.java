@@ -0,0 +1,27 @@
+package net.pincette.jf;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for a flush of a <code>JacksonGenerator</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@Name("net.pincette.jf.Flush")
+@Label("JSON Flush")
+@Category("JSON")
+@Description("Flushes a JacksonGenerator")
+class FlushEvent extends Event {
+  @Label("Bytes")
+  @Description("The number of buffered bytes, or -1 when it is not known")
+  @DataAmount
+  long bytes;
+
+  @Label("Depth")
+  int depth;
+}
@@ -5,6 +5,7 @@ import javax.json.stream.JsonGenerator;
 
 /**
  * This filter flushes every write down stream, which can be interesting for debugging purposes.
+ * Use <code>AdaptiveFlushingGenerator</code> to stream results to clients.
  *
  * @author Werner Donn\u00e9
  */
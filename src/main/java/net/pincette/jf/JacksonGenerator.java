@@ -1,11 +1,19 @@
 package net.pincette.jf;
 
+import static com.fasterxml.jackson.core.JsonToken.VALUE_EMBEDDED_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT;
 import static javax.json.JsonValue.ValueType.ARRAY;
 import static javax.json.JsonValue.ValueType.OBJECT;
 import static net.pincette.util.Json.asNumber;
 import static net.pincette.util.Json.asString;
 import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayDeque;
@@ -16,26 +24,188 @@ import javax.json.JsonObject;
 import javax.json.JsonValue;
 import javax.json.JsonValue.ValueType;
 import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser.Event;
 
 /**
- * A JSON generator that forwards everything to a Jackson generator.
+ * A JSON generator that forwards everything to a Jackson generator. This can also be a generator
+ * for a binary format such as Smile or CBOR, for which there are factory methods. Those need the
+ * optional <code>jackson-dataformat-smile</code> or <code>jackson-dataformat-cbor</code>
+ * dependency.
  *
  * @author Werner Donn\u00e9
  */
 public class JacksonGenerator implements JsonGenerator {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
   private final com.fasterxml.jackson.core.JsonGenerator generator;
+  private final boolean lines;
   private Deque<ValueType> stack = new ArrayDeque<>();
 
   public JacksonGenerator(final com.fasterxml.jackson.core.JsonGenerator generator) {
+    this(generator, false);
+  }
+
+  private JacksonGenerator(
+      final com.fasterxml.jackson.core.JsonGenerator generator, final boolean lines) {
     this.generator = generator;
+    this.lines = lines;
+  }
+
+  /**
+   * Creates a generator that produces CBOR.
+   *
+   * @param out the output.
+   * @return The generator.
+   */
+  public static JacksonGenerator cbor(final OutputStream out) {
+    return create(BinaryFormats.cbor(), out);
   }
 
   public void close() {
     tryToDoRethrow(generator::close);
   }
 
+  /**
+   * Writes the event with the value of the current token of <code>parser</code>, without decoding
+   * it first. Integers are copied with their Jackson number type and strings with the character
+   * buffer of the parser. Other numbers are copied with their original text when the generator
+   * supports that. Binary values are copied as such.
+   *
+   * @param e the given event.
+   * @param parser the given parser.
+   * @return This generator.
+   */
+  JsonGenerator copyEvent(final Event e, final JacksonParser parser) {
+    final com.fasterxml.jackson.core.JsonParser p = parser.getJacksonParser();
+
+    switch (e) {
+      case KEY_NAME:
+        tryToDoRethrow(() -> generator.writeFieldName(p.getCurrentName()));
+        return this;
+      case VALUE_NUMBER:
+        tryToDoRethrow(() -> copyNumber(parser));
+        return endValue();
+      case VALUE_STRING:
+        tryToDoRethrow(
+            () -> {
+              if (p.currentToken() == VALUE_EMBEDDED_OBJECT) {
+                generator.writeBinary(p.getBinaryValue());
+              } else {
+                generator.writeString(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+              }
+            });
+        return endValue();
+      default:
+        return Util.writeEvent(e, parser, this);
+    }
+  }
+
+  private void copyNumber(final JacksonParser jackson) throws IOException {
+    final com.fasterxml.jackson.core.JsonParser parser = jackson.getJacksonParser();
+
+    if (parser.currentToken() != VALUE_NUMBER_INT) {
+      copyNumber(jackson, parser);
+    } else {
+      switch (parser.getNumberType()) {
+        case INT:
+          generator.writeNumber(parser.getIntValue());
+          break;
+        case LONG:
+          generator.writeNumber(parser.getLongValue());
+          break;
+        default:
+          generator.writeNumber(parser.getBigIntegerValue());
+          break;
+      }
+    }
+  }
+
+  private void copyNumber(
+      final JacksonParser jackson, final com.fasterxml.jackson.core.JsonParser parser)
+      throws IOException {
+    if (generator.canWriteFormattedNumbers()) {
+      generator.writeNumber(parser.getText());
+    } else if (parser.getNumberType() == NumberType.FLOAT) {
+      generator.writeNumber(parser.getFloatValue());
+    } else if (parser.getNumberType() == NumberType.DOUBLE && jackson.isExactDouble()) {
+      generator.writeNumber(parser.getDoubleValue());
+    } else {
+      generator.writeNumber(parser.getDecimalValue());
+    }
+  }
+
+  private static JacksonGenerator create(final JsonFactory factory, final OutputStream out) {
+    return new JacksonGenerator(tryToGetRethrow(() -> factory.createGenerator(out)).orElse(null));
+  }
+
+  private JsonGenerator endValue() {
+    if (lines && stack.isEmpty()) {
+      tryToDoRethrow(() -> generator.writeRaw('\n'));
+    }
+
+    return this;
+  }
+
+  private static int depth(final JsonStreamContext context) {
+    int result = 0;
+
+    for (JsonStreamContext c = context; c != null && !c.inRoot(); c = c.getParent()) {
+      ++result;
+    }
+
+    return result;
+  }
+
   public void flush() {
+    if (!Jfr.isFlushEnabled()) {
+      tryToDoRethrow(generator::flush);
+
+      return;
+    }
+
+    final FlushEvent event = new FlushEvent();
+
+    event.bytes = generator.getOutputBuffered();
+    event.depth = depth(generator.getOutputContext());
+    event.begin();
     tryToDoRethrow(generator::flush);
+    event.commit();
+  }
+
+  /**
+   * Creates a generator that produces Smile. Repeated key names and short string values are written
+   * as back-references.
+   *
+   * @param out the output.
+   * @return The generator.
+   */
+  public static JacksonGenerator smile(final OutputStream out) {
+    return create(BinaryFormats.smile(), out);
+  }
+
+  /**
+   * Creates a generator that writes every root value on a separate line, which is the JSON Lines
+   * format. The generator can be used for any number of root values.
+   *
+   * @param generator the Jackson generator.
+   * @return The generator.
+   */
+  public static JacksonGenerator jsonLines(
+      final com.fasterxml.jackson.core.JsonGenerator generator) {
+    generator.setRootValueSeparator(null);
+
+    return new JacksonGenerator(generator, true);
+  }
+
+  /**
+   * Creates a generator that writes every root value on a separate line, which is the JSON Lines
+   * format. The generator can be used for any number of root values.
+   *
+   * @param out the output.
+   * @return The generator.
+   */
+  public static JacksonGenerator jsonLines(final OutputStream out) {
+    return jsonLines(tryToGetRethrow(() -> FACTORY.createGenerator(out)).orElse(null));
   }
 
   public JsonGenerator write(final String name, final JsonValue value) {
@@ -112,41 +282,43 @@ public class JacksonGenerator implements JsonGenerator {
   public JsonGenerator write(final String value) {
     tryToDoRethrow(() -> generator.writeString(value));
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator write(final BigDecimal value) {
     tryToDoRethrow(() -> generator.writeNumber(value));
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator write(final BigInteger value) {
     tryToDoRethrow(() -> generator.writeNumber(value));
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator write(final int value) {
     tryToDoRethrow(() -> generator.writeNumber(value));
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator write(final long value) {
     tryToDoRethrow(() -> generator.writeNumber(value));
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator write(final double value) {
-    return this;
+    tryToDoRethrow(() -> generator.writeNumber(value));
+
+    return endValue();
   }
 
   public JsonGenerator write(final boolean value) {
     tryToDoRethrow(() -> generator.writeBoolean(value));
 
-    return this;
+    return endValue();
   }
 
   private JsonGenerator write(final JsonNumber value) {
@@ -173,10 +345,10 @@ public class JacksonGenerator implements JsonGenerator {
     switch (stack.pop()) {
       case ARRAY:
         tryToDoRethrow(generator::writeEndArray);
-        return this;
+        return endValue();
       case OBJECT:
         tryToDoRethrow(generator::writeEndObject);
-        return this;
+        return endValue();
       default:
         return this;
     }
@@ -197,7 +369,7 @@ public class JacksonGenerator implements JsonGenerator {
   public JsonGenerator writeNull() {
     tryToDoRethrow(generator::writeNull);
 
-    return this;
+    return endValue();
   }
 
   public JsonGenerator writeStartArray() {
@@ -1,42 +1,107 @@
 package net.pincette.jf;
 
+import static com.fasterxml.jackson.core.JsonToken.FIELD_NAME;
 import static com.fasterxml.jackson.core.JsonToken.NOT_AVAILABLE;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_EMBEDDED_OBJECT;
+import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_FLOAT;
 import static com.fasterxml.jackson.core.JsonToken.VALUE_NUMBER_INT;
 import static net.pincette.util.Util.tryToDoRethrow;
 import static net.pincette.util.Util.tryToGetRethrow;
 
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.core.JsonStreamContext;
 import com.fasterxml.jackson.core.JsonToken;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.NoSuchElementException;
 import javax.json.stream.JsonLocation;
 import javax.json.stream.JsonParser;
 
 /**
- * A JSON parser that gets everything from a Jackson parser.
+ * A JSON parser that gets everything from a Jackson parser. This can also be a parser for a binary
+ * format such as Smile or CBOR, for which there are factory methods. Those need the optional
+ * <code>jackson-dataformat-smile</code> or <code>jackson-dataformat-cbor</code> dependency. Binary
+ * values are presented as base64 encoded strings.
  *
  * @author Werner Donn\u00e9
  */
-public class JacksonParser implements JsonParser {
+public class JacksonParser implements TypedNumberParser {
   private final com.fasterxml.jackson.core.JsonParser parser;
   private Event event;
+  private final KeyCache keys;
+  private int skipping;
   private JsonToken token;
 
   public JacksonParser(final com.fasterxml.jackson.core.JsonParser parser) {
+    this(parser, null);
+  }
+
+  /**
+   * Creates a parser that returns the key names through a cache.
+   *
+   * @param parser the Jackson parser.
+   * @param keys the key cache. It may be <code>null</code>.
+   */
+  public JacksonParser(final com.fasterxml.jackson.core.JsonParser parser, final KeyCache keys) {
     this.parser = parser;
+    this.keys = keys;
+  }
+
+  /**
+   * Creates a parser for CBOR input.
+   *
+   * @param in the CBOR input.
+   * @return The parser.
+   */
+  public static JacksonParser cbor(final byte[] in) {
+    return create(BinaryFormats.cbor(), in);
+  }
+
+  /**
+   * Creates a parser for CBOR input.
+   *
+   * @param in the CBOR input.
+   * @return The parser.
+   */
+  public static JacksonParser cbor(final InputStream in) {
+    return create(BinaryFormats.cbor(), in);
   }
 
   public void close() {
     tryToDoRethrow(parser::close);
   }
 
+  private static JacksonParser create(final JsonFactory factory, final byte[] in) {
+    return new JacksonParser(tryToGetRethrow(() -> factory.createParser(in)).orElse(null));
+  }
+
+  private static JacksonParser create(final JsonFactory factory, final InputStream in) {
+    return new JacksonParser(tryToGetRethrow(() -> factory.createParser(in)).orElse(null));
+  }
+
   public BigDecimal getBigDecimal() {
     return tryToGetRethrow(parser::getDecimalValue).orElse(null);
   }
 
+  public BigInteger getBigInteger() {
+    return tryToGetRethrow(parser::getBigIntegerValue).orElse(null);
+  }
+
+  public double getDouble() {
+    return tryToGetRethrow(parser::getDoubleValue).orElse(-1.0);
+  }
+
   public int getInt() {
     return tryToGetRethrow(parser::getIntValue).orElse(-1);
   }
 
+  com.fasterxml.jackson.core.JsonParser getJacksonParser() {
+    return parser;
+  }
+
   public JsonLocation getLocation() {
     return null;
   }
@@ -45,16 +110,92 @@ public class JacksonParser implements JsonParser {
     return tryToGetRethrow(parser::getLongValue).orElse(-1L);
   }
 
+  /**
+   * Returns the Jackson number type of the current number. For integers this is the smallest type
+   * that can hold the value. For other numbers Jackson reports <code>DOUBLE</code> unless it was
+   * configured to use <code>BigDecimal</code>.
+   *
+   * @return The number type or <code>null</code> if the current event is not a number.
+   */
+  public NumberType getNumberType() {
+    return token == VALUE_NUMBER_INT || token == VALUE_NUMBER_FLOAT
+        ? tryToGetRethrow(parser::getNumberType).orElse(null)
+        : null;
+  }
+
   public String getString() {
+    if (token == FIELD_NAME) {
+      final String name = tryToGetRethrow(parser::getCurrentName).orElse(null);
+
+      return keys != null ? keys.intern(name) : name;
+    }
+
+    if (token == VALUE_EMBEDDED_OBJECT) {
+      return tryToGetRethrow(parser::getBinaryValue)
+          .map(Base64Variants.getDefaultVariant()::encode)
+          .orElse(null);
+    }
+
     return tryToGetRethrow(parser::getText).orElse(null);
   }
 
+  /**
+   * Returns the length of the text of the current key or value. For JSON the text isn't turned into
+   * a string for this.
+   *
+   * @return The length in characters.
+   */
+  int getTextLength() {
+    return token == VALUE_EMBEDDED_OBJECT
+        ? getString().length()
+        : tryToGetRethrow(parser::getTextLength).orElse(0);
+  }
+
   public boolean hasNext() {
     return event != null || (event = nextEvent()) != null;
   }
 
+  /**
+   * Returns <code>true</code> if the current number is not an integer and has at most 15 digits,
+   * including the zeros before the first significant one, and an exponent of at most two digits.
+   * Such a number can be represented as a <code>double</code> without loss of precision, but not
+   * without loss of its scale. <code>JacksonGenerator</code> uses this when it copies numbers to a
+   * format that can't write them as text.
+   *
+   * @return Whether the number fits in a <code>double</code>.
+   */
+  public boolean isExactDouble() {
+    return token == VALUE_NUMBER_FLOAT
+        && tryToGetRethrow(
+                () ->
+                    isExactDouble(
+                        parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength()))
+            .orElse(false);
+  }
+
+  private static boolean isExactDouble(final char[] text, final int offset, final int length) {
+    int digits = 0;
+
+    for (int i = offset; i < offset + length; ++i) {
+      final char c = text[i];
+
+      if (c == 'e' || c == 'E') {
+        final int exponent = offset + length - i - 1;
+
+        return digits <= 15
+            && (exponent <= 2 || (exponent == 3 && (text[i + 1] == '-' || text[i + 1] == '+')));
+      }
+
+      if (c >= '0' && c <= '9') {
+        ++digits;
+      }
+    }
+
+    return digits <= 15;
+  }
+
   public boolean isIntegralNumber() {
-    return event != null && token == VALUE_NUMBER_INT;
+    return token == VALUE_NUMBER_INT;
   }
 
   public Event next() {
@@ -66,6 +207,10 @@ public class JacksonParser implements JsonParser {
   }
 
   private Event nextEvent() {
+    if (!skipToEnd()) {
+      return null;
+    }
+
     token = tryToGetRethrow(parser::nextToken).orElse(NOT_AVAILABLE);
 
     switch (token) {
@@ -88,6 +233,7 @@ public class JacksonParser implements JsonParser {
       case START_OBJECT:
         return Event.START_OBJECT;
       case VALUE_STRING:
+      case VALUE_EMBEDDED_OBJECT:
         return Event.VALUE_STRING;
       case VALUE_NUMBER_INT:
       case VALUE_NUMBER_FLOAT:
@@ -96,4 +242,95 @@ public class JacksonParser implements JsonParser {
         throw new NoSuchElementException();
     }
   }
+
+  /**
+   * Creates a parser for Smile input.
+   *
+   * @param in the Smile input.
+   * @return The parser.
+   */
+  public static JacksonParser smile(final byte[] in) {
+    return create(BinaryFormats.smile(), in);
+  }
+
+  /**
+   * Creates a parser for Smile input.
+   *
+   * @param in the Smile input.
+   * @return The parser.
+   */
+  public static JacksonParser smile(final InputStream in) {
+    return create(BinaryFormats.smile(), in);
+  }
+
+  private void skip(final Event end) {
+    if (event == Event.END_ARRAY || event == Event.END_OBJECT) {
+      // The pending event closes the current structure, so its kind decides.
+      if (event == end) {
+        event = null;
+      }
+    } else {
+      final boolean pendingStart = event == Event.START_ARRAY || event == Event.START_OBJECT;
+      JsonStreamContext context = parser.getParsingContext();
+
+      // The parser may be ahead of the caller by a pending start or an unfinished skip.
+      for (int i = skipping + (pendingStart ? 1 : 0); i > 0 && context != null; --i) {
+        context = context.getParent();
+      }
+
+      if (context != null && (end == Event.END_ARRAY ? context.inArray() : context.inObject())) {
+        event = null;
+        skipping += pendingStart ? 2 : 1;
+        skipToEnd();
+      }
+    }
+  }
+
+  /**
+   * Advances the parser to the end of the innermost array without decoding anything. Nothing
+   * happens if the innermost structure is not an array, which is also the case when a lookahead by
+   * <code>hasNext</code> has read the end of the other kind of structure. When a non-blocking parser
+   * runs out of input, the skip continues after the next chunk has been fed.
+   */
+  @Override
+  public void skipArray() {
+    skip(Event.END_ARRAY);
+  }
+
+  /**
+   * Advances the parser to the end of the innermost object without decoding anything. Nothing
+   * happens if the innermost structure is not an object, which is also the case when a lookahead by
+   * <code>hasNext</code> has read the end of the other kind of structure. When a non-blocking parser
+   * runs out of input, the skip continues after the next chunk has been fed.
+   */
+  @Override
+  public void skipObject() {
+    skip(Event.END_OBJECT);
+  }
+
+  /**
+   * Reads tokens until the structures that are being skipped are closed. The number of open
+   * structures is kept, so a non-blocking parser that runs out of input can resume.
+   *
+   * @return Whether the skip is complete.
+   */
+  private boolean skipToEnd() {
+    while (skipping > 0) {
+      token = tryToGetRethrow(parser::nextToken).orElse(null);
+
+      if (token == NOT_AVAILABLE) {
+        return false;
+      }
+
+      if (token == null) {
+        skipping = 0;
+      } else if (token.isStructStart()) {
+        ++skipping;
+      } else if (token.isStructEnd()) {
+        --skipping;
+      }
+    }
+
+    return true;
+  }
 }
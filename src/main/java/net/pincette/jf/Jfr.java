@@ -0,0 +1,40 @@
+package net.pincette.jf;
+
+import jdk.jfr.EventType;
+
+/**
+ * Tells whether the JFR events of this library are enabled. The <code>jdk.jfr</code> module may be
+ * absent from a runtime image. The event classes are then never loaded, because the event types are
+ * kept in a holder class that is only initialized when the module is present. Callers create an
+ * event only when it is enabled, so nothing is allocated otherwise.
+ *
+ * @author Werner Donn\u00e9
+ */
+final class Jfr {
+  private static final boolean PRESENT = ModuleLayer.boot().findModule("jdk.jfr").isPresent();
+
+  private Jfr() {}
+
+  static boolean isAccumulateEnabled() {
+    return PRESENT && Types.ACCUMULATE.isEnabled();
+  }
+
+  static boolean isBuildEnabled() {
+    return PRESENT && Types.BUILD.isEnabled();
+  }
+
+  static boolean isFlushEnabled() {
+    return PRESENT && Types.FLUSH.isEnabled();
+  }
+
+  static boolean isParseEnabled() {
+    return PRESENT && Types.PARSE.isEnabled();
+  }
+
+  private static class Types {
+    private static final EventType ACCUMULATE = EventType.getEventType(AccumulateEvent.class);
+    private static final EventType BUILD = EventType.getEventType(BuildEvent.class);
+    private static final EventType FLUSH = EventType.getEventType(FlushEvent.class);
+    private static final EventType PARSE = EventType.getEventType(ParseEvent.class);
+  }
+}
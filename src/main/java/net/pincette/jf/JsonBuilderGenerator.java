@@ -1,7 +1,7 @@
 package net.pincette.jf;
 
-import static javax.json.Json.createArrayBuilder;
-import static javax.json.Json.createObjectBuilder;
+import static net.pincette.jf.Provider.createArrayBuilder;
+import static net.pincette.jf.Provider.createObjectBuilder;
 import static net.pincette.util.Pair.pair;
 
 import java.util.ArrayDeque;
@@ -9,6 +9,7 @@ import java.util.Deque;
 import java.util.Optional;
 import java.util.function.Consumer;
 import javax.json.JsonArrayBuilder;
+import javax.json.JsonBuilderFactory;
 import javax.json.JsonException;
 import javax.json.JsonObjectBuilder;
 import javax.json.JsonStructure;
@@ -24,16 +25,56 @@ import net.pincette.util.Pair;
 public class JsonBuilderGenerator extends JsonValueGenerator {
   private Object builder;
   private Deque<Pair<String, Object>> builders = new ArrayDeque<>();
+  private final JsonBuilderFactory factory;
   private String lastName;
+  private int maxDepth;
 
-  public JsonBuilderGenerator() {}
+  public JsonBuilderGenerator() {
+    this((JsonBuilderFactory) null);
+  }
+
+  /**
+   * Creates a generator that creates all its builders with <code>factory</code>.
+   *
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   */
+  public JsonBuilderGenerator(final JsonBuilderFactory factory) {
+    this.factory = factory;
+  }
 
   public JsonBuilderGenerator(final JsonObjectBuilder builder) {
-    builders.push(pair(null, builder));
+    this(builder, null);
   }
 
   public JsonBuilderGenerator(final JsonArrayBuilder builder) {
-    builders.push(pair(null, builder));
+    this(builder, null);
+  }
+
+  /**
+   * Creates a generator that adds everything to <code>builder</code> and creates the nested
+   * builders with <code>factory</code>.
+   *
+   * @param builder the given builder.
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   */
+  public JsonBuilderGenerator(final JsonObjectBuilder builder, final JsonBuilderFactory factory) {
+    this(factory);
+    push(null, builder);
+  }
+
+  /**
+   * Creates a generator that adds everything to <code>builder</code> and creates the nested
+   * builders with <code>factory</code>.
+   *
+   * @param builder the given builder.
+   * @param factory the builder factory. When it is <code>null</code> the default JSON provider is
+   *     used.
+   */
+  public JsonBuilderGenerator(final JsonArrayBuilder builder, final JsonBuilderFactory factory) {
+    this(factory);
+    push(null, builder);
   }
 
   private static void add(final Object parent, final Pair<String, Object> builder) {
@@ -52,6 +93,10 @@ public class JsonBuilderGenerator extends JsonValueGenerator {
         : ((JsonArrayBuilder) builder).build();
   }
 
+  private JsonArrayBuilder arrayBuilder() {
+    return factory != null ? factory.createArrayBuilder() : createArrayBuilder();
+  }
+
   private Optional<JsonObjectBuilder> asObjectBuilder() {
     return Optional.ofNullable(builders.peek()).map(p -> (JsonObjectBuilder) p.second);
   }
@@ -71,7 +116,44 @@ public class JsonBuilderGenerator extends JsonValueGenerator {
       throw new IllegalStateException("Object or array is not complete");
     }
 
-    return build(builder);
+    if (!Jfr.isBuildEnabled()) {
+      return build(builder);
+    }
+
+    final BuildEvent event = new BuildEvent();
+
+    event.begin();
+
+    final JsonStructure result = build(builder);
+
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.depth = maxDepth;
+      event.size = Util.size(result);
+      event.type = result.getValueType().name();
+      event.commit();
+    }
+
+    return result;
+  }
+
+  /**
+   * Returns the deepest nesting level that was reached.
+   *
+   * @return The depth.
+   */
+  int getMaxDepth() {
+    return maxDepth;
+  }
+
+  private JsonObjectBuilder objectBuilder() {
+    return factory != null ? factory.createObjectBuilder() : createObjectBuilder();
+  }
+
+  private void push(final String name, final Object builder) {
+    builders.push(pair(name, builder));
+    maxDepth = Math.max(maxDepth, builders.size());
   }
 
   private void checkNoLastName() {
@@ -142,7 +224,7 @@ public class JsonBuilderGenerator extends JsonValueGenerator {
 
   @Override
   public JsonGenerator writeStartArray() {
-    builders.push(pair(lastName, createArrayBuilder()));
+    push(lastName, arrayBuilder());
     lastName = null;
 
     return this;
@@ -151,14 +233,14 @@ public class JsonBuilderGenerator extends JsonValueGenerator {
   @Override
   public JsonGenerator writeStartArray(final String name) {
     checkNoLastName();
-    builders.push(pair(name, createArrayBuilder()));
+    push(name, arrayBuilder());
 
     return this;
   }
 
   @Override
   public JsonGenerator writeStartObject() {
-    builders.push(pair(lastName, createObjectBuilder()));
+    push(lastName, objectBuilder());
     lastName = null;
 
     return this;
@@ -167,7 +249,7 @@ public class JsonBuilderGenerator extends JsonValueGenerator {
   @Override
   public JsonGenerator writeStartObject(final String name) {
     checkNoLastName();
-    builders.push(pair(name, createObjectBuilder()));
+    push(name, objectBuilder());
 
     return this;
   }
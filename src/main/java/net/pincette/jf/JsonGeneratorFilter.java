@@ -1,5 +1,7 @@
 package net.pincette.jf;
 
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Optional;
 import javax.json.JsonException;
 import javax.json.JsonValue;
@@ -14,11 +16,41 @@ import javax.json.stream.JsonGenerator;
  * <p>The last one may be a plain <code>JsonGenerator</code>. The result of the entire expression is
  * the first filter.
  *
- * <p>The value writers in this class call the variants with the <code>JsonValue</code> type.
+ * <p>The scalar value writers in this class pass their values unchanged to the next element in the
+ * chain. The rule is decided per writer, from the methods the class of the filter overrides,
+ * including those it inherits from its superclasses:
+ *
+ * <ul>
+ *   <li>When neither <code>write(JsonValue)</code> nor the typed writer is overridden, the value
+ *       goes to the next element as it is.
+ *   <li>When <code>write(JsonValue)</code> is overridden, but the typed writer isn't, the writer
+ *       boxes the value and calls <code>write(JsonValue)</code>, so the filter sees all scalar
+ *       values through one method.
+ *   <li>When the typed writer is overridden as well, its <code>super</code> call doesn't box. The
+ *       value goes to the next element without passing through <code>write(JsonValue)</code>.
+ * </ul>
+ *
+ * <p>The named writers follow the same rule with <code>write(String, JsonValue)</code>. Before,
+ * every typed writer boxed. A subclass that overrides a typed writer and expects its <code>super
+ * </code> call to arrive in its own <code>write(JsonValue)</code> should now call that method
+ * itself.
  *
  * @author Werner Donn\u00e9
  */
 public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGenerator {
+  private static final Class<?>[] SCALARS = {
+    String.class, BigDecimal.class, BigInteger.class, int.class, long.class, double.class,
+    boolean.class
+  };
+  private static final ClassValue<Integer> BOXED =
+      new ClassValue<Integer>() {
+        @Override
+        protected Integer computeValue(final Class<?> type) {
+          return boxed(type);
+        }
+      };
+
+  private final int boxed = BOXED.get(getClass());
   private JsonGenerator next;
   private JsonGenerator saved;
 
@@ -30,6 +62,50 @@ public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGener
     Optional.ofNullable(next).ifPresent(JsonGenerator::flush);
   }
 
+  /**
+   * Returns a bit per typed scalar writer, first the unnamed and then the named ones, that is set
+   * when that writer should box its value. That is when the subclass overrides the <code>JsonValue
+   * </code> variant, but not the writer itself.
+   */
+  private static int boxed(final Class<?> type) {
+    final boolean named = overrides(type, "write", String.class, JsonValue.class);
+    final boolean unnamed = overrides(type, "write", JsonValue.class);
+    int result = 0;
+
+    for (int i = 0; i < SCALARS.length; ++i) {
+      if (unnamed && !overrides(type, "write", SCALARS[i])) {
+        result |= 1 << i;
+      }
+
+      if (named && !overrides(type, "write", String.class, SCALARS[i])) {
+        result |= 1 << (SCALARS.length + i);
+      }
+    }
+
+    return result;
+  }
+
+  private boolean boxes(final int bit) {
+    return (boxed & (1 << bit)) != 0;
+  }
+
+  static boolean overrides(
+      final Class<?> type, final String name, final Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes).getDeclaringClass() != JsonGeneratorFilter.class;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  JsonGenerator getNext() {
+    return next;
+  }
+
+  boolean hasNext() {
+    return next != null;
+  }
+
   /**
    * Causes all writes to go to <code>accumulator</code> instead of the next element in the filter
    * chain.
@@ -55,6 +131,22 @@ public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGener
     return this;
   }
 
+  /**
+   * Removes a filter that was inserted with <code>insertFilter</code>. Nothing happens if it isn't
+   * the next filter element.
+   *
+   * @param filter the inserted filter.
+   * @return This filter element.
+   */
+  protected JsonGeneratorFilter removeFilter(final JsonGeneratorFilter filter) {
+    if (next == filter) {
+      next = filter.next;
+      filter.next = null;
+    }
+
+    return this;
+  }
+
   /**
    * Stops all writes to go to the inserted accumulator. This will throw an exception if no
    * accumulator was inserted.
@@ -68,6 +160,33 @@ public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGener
     saved = null;
   }
 
+  /**
+   * Brings this filter element and the ones after it back to their initial state, so the chain can
+   * be used for the next document. This is cheaper than creating a new chain. A subclass with state
+   * should override this method and call it.
+   *
+   * <p>This method was added to an existing class. A subclass that already had a method with the
+   * same signature now overrides it. If that method is private or protected the subclass no longer
+   * compiles. If it is public it is called whenever the chain is reset, and without a call to
+   * <code>super.reset()</code> the elements after it aren't reset anymore. Such a method should be
+   * renamed, or call <code>super.reset()</code> when it really means to reset the filter for the
+   * next document.
+   */
+  public void reset() {
+    if (saved != null) {
+      next = saved;
+      saved = null;
+    }
+
+    if (next instanceof JsonGeneratorFilter) {
+      ((JsonGeneratorFilter) next).reset();
+    }
+  }
+
+  void setNext(final JsonGenerator next) {
+    this.next = next;
+  }
+
   /**
    * Appends a generator to a filter chain.
    *
@@ -75,16 +194,18 @@ public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGener
    * @return The filter chain.
    */
   public JsonGeneratorFilter thenApply(final JsonGenerator next) {
-    if (this.next == null) {
-      this.next = next;
-    } else {
-      if (this.next instanceof JsonGeneratorFilter) {
-        ((JsonGeneratorFilter) this.next).thenApply(next);
-      } else {
+    JsonGeneratorFilter last = this;
+
+    while (last.next != null) {
+      if (!(last.next instanceof JsonGeneratorFilter)) {
         throw new JsonException("Unsupported operation");
       }
+
+      last = (JsonGeneratorFilter) last.next;
     }
 
+    last.next = next;
+
     return this;
   }
 
@@ -104,6 +225,174 @@ public class JsonGeneratorFilter extends JsonValueGenerator implements JsonGener
     return this;
   }
 
+  public JsonGenerator write(final String value) {
+    if (boxes(0)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final BigDecimal value) {
+    if (boxes(1)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final BigInteger value) {
+    if (boxes(2)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final int value) {
+    if (boxes(3)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final long value) {
+    if (boxes(4)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final double value) {
+    if (boxes(5)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final boolean value) {
+    if (boxes(6)) {
+      return super.write(value);
+    }
+
+    if (next != null) {
+      next.write(value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final String value) {
+    if (boxes(7)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    if (boxes(8)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final BigInteger value) {
+    if (boxes(9)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final int value) {
+    if (boxes(10)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final long value) {
+    if (boxes(11)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final double value) {
+    if (boxes(12)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
+  public JsonGenerator write(final String name, final boolean value) {
+    if (boxes(13)) {
+      return super.write(name, value);
+    }
+
+    if (next != null) {
+      next.write(name, value);
+    }
+
+    return this;
+  }
+
   public JsonGenerator writeEnd() {
     if (next != null) {
       next.writeEnd();
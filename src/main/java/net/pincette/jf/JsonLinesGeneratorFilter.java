@@ -0,0 +1,131 @@
+package net.pincette.jf;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Lets a filter chain process a sequence of root values, such as JSON Lines. After each root value
+ * the rest of the chain is reset, so every value is filtered as if it were a separate document.
+ * Put it at the start of the chain and end it with a generator that separates the root values,
+ * such as the one from <code>JacksonGenerator.jsonLines</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class JsonLinesGeneratorFilter extends JsonGeneratorFilter {
+  private int depth;
+
+  private JsonGenerator endValue() {
+    if (depth == 0 && getNext() instanceof JsonGeneratorFilter) {
+      ((JsonGeneratorFilter) getNext()).reset();
+    }
+
+    return this;
+  }
+
+  @Override
+  public void reset() {
+    depth = 0;
+    super.reset();
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    super.write(value);
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    super.writeEnd();
+    --depth;
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    super.writeNull();
+
+    return endValue();
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    ++depth;
+
+    return super.writeStartArray();
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    ++depth;
+
+    return super.writeStartArray(name);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    ++depth;
+
+    return super.writeStartObject();
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    ++depth;
+
+    return super.writeStartObject(name);
+  }
+}
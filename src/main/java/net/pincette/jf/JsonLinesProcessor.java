@@ -0,0 +1,231 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.supplyAsync;
+import static net.pincette.util.Util.tryToGetRethrow;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Processes JSON Lines input in parallel. The input is cut into batches of complete lines, which
+ * are parsed and run through a filter chain on an executor. The results are written to one
+ * generator on the calling thread, in the original order or in the order in which they complete.
+ * The number of batches in flight is bounded, so a slow output slows down the reading of the
+ * input. You can use it as follows:
+ *
+ * <p>{@code new JsonLinesProcessor(() -> new RemoveEmptyObjectsGenerator()).process(in,
+ * JacksonGenerator.jsonLines(out))}
+ *
+ * <p>Every worker thread builds its own chain with the supplier and reuses it for all the lines it
+ * processes. The chain is reset after every line. A Jackson parser can't be pointed at new input,
+ * so every batch gets a new one, which is closed afterwards. Closing it gives its buffers back to
+ * the factory, which keeps them per thread for the next parser. It also merges the key names the
+ * parser has seen into the symbol table of the factory, which all parsers share.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class JsonLinesProcessor {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private int batchSize = 0x10000;
+  private Executor executor = ForkJoinPool.commonPool();
+  private int maxInFlight = Runtime.getRuntime().availableProcessors() * 4;
+  private boolean ordered = true;
+  private final ThreadLocal<ChainRunner> runners;
+
+  /**
+   * Creates a processor with a filter chain.
+   *
+   * @param chain produces a new filter chain for every worker thread. The last element of a chain
+   *     should not have a successor yet. It may be <code>null</code>, in which case the values are
+   *     passed unchanged.
+   */
+  public JsonLinesProcessor(final Supplier<JsonGeneratorFilter> chain) {
+    runners = ThreadLocal.withInitial(() -> new ChainRunner(chain));
+  }
+
+  private static int lastNewline(final byte[] buffer, final int length) {
+    for (int i = length - 1; i >= 0; --i) {
+      if (buffer[i] == '\n') {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  private static int read(final InputStream in, final byte[] buffer, final int offset) {
+    return tryToGetRethrow(() -> in.read(buffer, offset, buffer.length - offset)).orElse(-1);
+  }
+
+  private static RuntimeException unwrap(final CompletionException e) {
+    return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+  }
+
+  private static void write(final CompletableFuture<EventBuffer> result, final JsonGenerator out) {
+    final EventBuffer buffer = result.join();
+
+    try {
+      buffer.replay(out, null);
+    } finally {
+      buffer.close();
+    }
+  }
+
+  private void cancel(final Deque<CompletableFuture<EventBuffer>> window) {
+    window.forEach(
+        f -> {
+          if (!f.cancel(false)) {
+            f.thenAccept(EventBuffer::close);
+          }
+        });
+    window.clear();
+  }
+
+  /**
+   * Reads all of <code>in</code> and writes the processed values to <code>out</code>. It returns
+   * when everything has been written. The streams are not closed.
+   *
+   * @param in the JSON Lines input.
+   * @param out the generator for the results.
+   */
+  public void process(final InputStream in, final JsonGenerator out) {
+    final Deque<CompletableFuture<EventBuffer>> window = new ArrayDeque<>();
+
+    try {
+      byte[] buffer = new byte[batchSize];
+      int filled = 0;
+
+      for (int n = read(in, buffer, filled); n != -1 || filled > 0; n = read(in, buffer, filled)) {
+        filled += Math.max(n, 0);
+
+        if (n == -1 || filled == buffer.length) {
+          final int end = n == -1 ? filled - 1 : lastNewline(buffer, filled);
+
+          if (end == -1) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+          } else {
+            final byte[] next = new byte[Math.max(batchSize, filled - end - 1)];
+
+            System.arraycopy(buffer, end + 1, next, 0, filled - end - 1);
+            submit(buffer, end + 1, window, out);
+            buffer = next;
+            filled -= end + 1;
+          }
+        }
+      }
+
+      while (!window.isEmpty()) {
+        writeNext(window, out);
+      }
+    } catch (CompletionException e) {
+      cancel(window);
+      throw unwrap(e);
+    } catch (RuntimeException e) {
+      cancel(window);
+      throw e;
+    }
+  }
+
+  private EventBuffer run(final byte[] batch, final int length) {
+    final JacksonParser parser =
+        new JacksonParser(
+            tryToGetRethrow(() -> FACTORY.createParser(batch, 0, length)).orElse(null));
+
+    try {
+      return runners.get().run(parser);
+    } finally {
+      parser.close();
+    }
+  }
+
+  private void submit(
+      final byte[] batch,
+      final int length,
+      final Deque<CompletableFuture<EventBuffer>> window,
+      final JsonGenerator out) {
+    while (window.size() >= maxInFlight) {
+      writeNext(window, out);
+    }
+
+    window.addLast(supplyAsync(() -> run(batch, length), executor, EventBuffer::close));
+  }
+
+  /**
+   * Sets the approximate size of the batches. The default is 64KB.
+   *
+   * @param batchSize the size in bytes.
+   * @return The processor.
+   */
+  public JsonLinesProcessor withBatchSize(final int batchSize) {
+    this.batchSize = batchSize;
+
+    return this;
+  }
+
+  /**
+   * Sets the executor for the workers. The default is the common fork join pool.
+   *
+   * @param executor the given executor.
+   * @return The processor.
+   */
+  public JsonLinesProcessor withExecutor(final Executor executor) {
+    this.executor = executor;
+
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of batches that are in flight. The default is four times the number of
+   * processors.
+   *
+   * @param maxInFlight the maximum number.
+   * @return The processor.
+   */
+  public JsonLinesProcessor withMaxInFlight(final int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+
+    return this;
+  }
+
+  /**
+   * Sets whether the results are written in the original order. The default is <code>true</code>.
+   * Otherwise a batch is written as soon as it is complete.
+   *
+   * @param ordered the given setting.
+   * @return The processor.
+   */
+  public JsonLinesProcessor withOrdered(final boolean ordered) {
+    this.ordered = ordered;
+
+    return this;
+  }
+
+  private void writeNext(
+      final Deque<CompletableFuture<EventBuffer>> window, final JsonGenerator out) {
+    if (ordered) {
+      write(window.removeFirst(), out);
+    } else {
+      CompletableFuture.anyOf(window.toArray(new CompletableFuture<?>[0])).join();
+
+      for (Iterator<CompletableFuture<EventBuffer>> i = window.iterator(); i.hasNext(); ) {
+        final CompletableFuture<EventBuffer> result = i.next();
+
+        if (result.isDone()) {
+          i.remove();
+          write(result, out);
+        }
+      }
+    }
+  }
+}
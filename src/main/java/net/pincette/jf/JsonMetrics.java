@@ -0,0 +1,152 @@
+package net.pincette.jf;
+
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_FALSE;
+import static javax.json.stream.JsonParser.Event.VALUE_NULL;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static javax.json.stream.JsonParser.Event.VALUE_TRUE;
+import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import javax.json.stream.JsonParser.Event;
+import javax.management.ObjectName;
+
+/**
+ * Counts events, value bytes, documents and time with striped counters, so it can be shared by
+ * several filters and parsers on different threads. It can be registered as an MBean.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class JsonMetrics implements Metrics, JsonMetricsMBean {
+  private final LongAdder documents = new LongAdder();
+  private final LongAdder[] events =
+      Stream.of(Event.values()).map(e -> new LongAdder()).toArray(LongAdder[]::new);
+  private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+  private final LongAdder nanos = new LongAdder();
+  private final LongAdder valueBytes = new LongAdder();
+
+  private long count(final Event event) {
+    return events[event.ordinal()].sum();
+  }
+
+  public void document() {
+    documents.increment();
+  }
+
+  public void event(final Event event, final long bytes, final int depth) {
+    events[event.ordinal()].increment();
+
+    if (bytes > 0) {
+      valueBytes.add(bytes);
+    }
+
+    maxDepth.accumulate(depth);
+  }
+
+  public long getDocuments() {
+    return documents.sum();
+  }
+
+  public long getEndArrays() {
+    return count(END_ARRAY);
+  }
+
+  public long getEndObjects() {
+    return count(END_OBJECT);
+  }
+
+  public long getFalseValues() {
+    return count(VALUE_FALSE);
+  }
+
+  public long getKeyNames() {
+    return count(KEY_NAME);
+  }
+
+  public long getMaxDepth() {
+    return maxDepth.get();
+  }
+
+  public long getNanos() {
+    return nanos.sum();
+  }
+
+  public long getNullValues() {
+    return count(VALUE_NULL);
+  }
+
+  public long getNumbers() {
+    return count(VALUE_NUMBER);
+  }
+
+  public long getStartArrays() {
+    return count(START_ARRAY);
+  }
+
+  public long getStartObjects() {
+    return count(START_OBJECT);
+  }
+
+  public long getStrings() {
+    return count(VALUE_STRING);
+  }
+
+  public long getTrueValues() {
+    return count(VALUE_TRUE);
+  }
+
+  public long getValueBytes() {
+    return valueBytes.sum();
+  }
+
+  /**
+   * Registers the metrics with the platform MBean server under the name <code>
+   * net.pincette.jf:type=JsonMetrics,name=[name]</code>.
+   *
+   * @param name the name of the metrics.
+   * @return The object name.
+   */
+  public ObjectName register(final String name) {
+    final ObjectName objectName =
+        tryToGetRethrow(
+                () ->
+                    new ObjectName(
+                        "net.pincette.jf:type=JsonMetrics,name=" + ObjectName.quote(name)))
+            .orElse(null);
+
+    tryToDoRethrow(
+        () -> ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName));
+
+    return objectName;
+  }
+
+  public void reset() {
+    documents.reset();
+    Stream.of(events).forEach(LongAdder::reset);
+    maxDepth.reset();
+    nanos.reset();
+    valueBytes.reset();
+  }
+
+  public void time(final long nanos) {
+    this.nanos.add(nanos);
+  }
+
+  /**
+   * Removes the metrics from the platform MBean server.
+   *
+   * @param objectName the name that was returned by <code>register</code>.
+   */
+  public static void unregister(final ObjectName objectName) {
+    tryToDoRethrow(() -> ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName));
+  }
+}
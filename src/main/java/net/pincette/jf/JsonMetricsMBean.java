@@ -0,0 +1,38 @@
+package net.pincette.jf;
+
+/**
+ * The JMX interface of <code>JsonMetrics</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+public interface JsonMetricsMBean {
+  long getDocuments();
+
+  long getEndArrays();
+
+  long getEndObjects();
+
+  long getFalseValues();
+
+  long getKeyNames();
+
+  long getMaxDepth();
+
+  long getNanos();
+
+  long getNullValues();
+
+  long getNumbers();
+
+  long getStartArrays();
+
+  long getStartObjects();
+
+  long getStrings();
+
+  long getTrueValues();
+
+  long getValueBytes();
+
+  void reset();
+}
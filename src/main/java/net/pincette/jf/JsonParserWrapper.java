@@ -1,10 +1,18 @@
 package net.pincette.jf;
 
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
 import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
 import static net.pincette.jf.Util.valueStream;
 
 import java.math.BigDecimal;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 import javax.json.JsonArray;
 import javax.json.JsonObject;
@@ -20,6 +28,8 @@ import javax.json.stream.JsonParser;
  */
 public class JsonParserWrapper implements JsonParser {
   private final JsonParser delegate;
+  private boolean[] arrays = new boolean[16];
+  private int depth;
   private Event event;
 
   public JsonParserWrapper(final JsonParser delegate) {
@@ -30,6 +40,13 @@ public class JsonParserWrapper implements JsonParser {
     delegate.close();
   }
 
+  private void checkState(final Event expected) {
+    if (event != expected) {
+      throw new IllegalStateException(
+          "In state " + event.toString() + " instead of " + expected.toString());
+    }
+  }
+
   @Override
   public JsonArray getArray() {
     return Util.getArray(this);
@@ -37,10 +54,7 @@ public class JsonParserWrapper implements JsonParser {
 
   @Override
   public Stream<JsonValue> getArrayStream() {
-    if (event != START_ARRAY) {
-      throw new IllegalStateException(
-          "In state " + event.toString() + " instead of " + START_ARRAY.toString());
-    }
+    checkState(START_ARRAY);
 
     return valueStream(this);
   }
@@ -49,6 +63,15 @@ public class JsonParserWrapper implements JsonParser {
     return delegate.getBigDecimal();
   }
 
+  JsonParser getDelegate() {
+    return delegate;
+  }
+
+  /** Returns the nesting depth after the current event. */
+  int getDepth() {
+    return depth;
+  }
+
   public int getInt() {
     return delegate.getInt();
   }
@@ -66,9 +89,43 @@ public class JsonParserWrapper implements JsonParser {
     return Util.getObject(this);
   }
 
+  /**
+   * Returns the entries of the current object one by one. Only one value is kept in memory at the
+   * time. The parser must be in the state <code>START_OBJECT</code>.
+   *
+   * @return The stream of entries.
+   */
   @Override
   public Stream<Entry<String, JsonValue>> getObjectStream() {
-    return getObject().entrySet().stream();
+    checkState(START_OBJECT);
+
+    return net.pincette.util.StreamUtil.stream(
+        new Iterator<Entry<String, JsonValue>>() {
+          private Event nextEvent;
+
+          @Override
+          public boolean hasNext() {
+            if (nextEvent == null && JsonParserWrapper.this.hasNext()) {
+              nextEvent = JsonParserWrapper.this.next();
+            }
+
+            return nextEvent == KEY_NAME;
+          }
+
+          @Override
+          public Entry<String, JsonValue> next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            final String name = getString();
+
+            nextEvent = null;
+
+            return new SimpleImmutableEntry<>(
+                name, Util.getValue(JsonParserWrapper.this.next(), JsonParserWrapper.this));
+          }
+        });
   }
 
   public String getString() {
@@ -96,16 +153,77 @@ public class JsonParserWrapper implements JsonParser {
   public Event next() {
     event = delegate.next();
 
+    switch (event) {
+      case START_ARRAY:
+      case START_OBJECT:
+        if (depth == arrays.length) {
+          arrays = Arrays.copyOf(arrays, depth * 2);
+        }
+
+        arrays[depth++] = event == START_ARRAY;
+        break;
+      case END_ARRAY:
+      case END_OBJECT:
+        --depth;
+        break;
+      default:
+        break;
+    }
+
     return event;
   }
 
+  private void skip(final Event start, final Event end) {
+    if (depth > 0 && arrays[depth - 1] == (start == START_ARRAY)) {
+      try {
+        if (start == START_ARRAY) {
+          delegate.skipArray();
+        } else {
+          delegate.skipObject();
+        }
+      } catch (UnsupportedOperationException e) {
+        skipStructure();
+      }
+
+      --depth;
+      event = end;
+    }
+  }
+
+  /**
+   * Skips to the end of the innermost array. Nothing happens if the innermost structure is not an
+   * array. For a delegate that doesn't support this the events are read while only the nesting
+   * depth is tracked.
+   */
   @Override
   public void skipArray() {
-    getArray();
+    skip(START_ARRAY, END_ARRAY);
   }
 
+  /**
+   * Skips to the end of the innermost object. Nothing happens if the innermost structure is not an
+   * object. For a delegate that doesn't support this the events are read while only the nesting
+   * depth is tracked.
+   */
   @Override
   public void skipObject() {
-    getObject();
+    skip(START_OBJECT, END_OBJECT);
+  }
+
+  private void skipStructure() {
+    for (int depth = 1; depth > 0 && delegate.hasNext(); ) {
+      switch (delegate.next()) {
+        case START_ARRAY:
+        case START_OBJECT:
+          ++depth;
+          break;
+        case END_ARRAY:
+        case END_OBJECT:
+          --depth;
+          break;
+        default:
+          break;
+      }
+    }
   }
 }
@@ -0,0 +1,506 @@
+package net.pincette.jf;
+
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_FALSE;
+import static javax.json.stream.JsonParser.Event.VALUE_NULL;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static javax.json.stream.JsonParser.Event.VALUE_TRUE;
+
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonLocation;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Connects a generator on one thread to a parser on another thread, without encoding the events as
+ * text. The events go through a bounded ring buffer of pre-allocated slots, which is written by
+ * one producer and read by one consumer without locks. A side that has to wait first spins a
+ * little and then parks, which also works for virtual threads. You can use it as follows:
+ *
+ * <p>{@code final JsonPipe pipe = new JsonPipe(); executor.execute(() -> { Util.add(in,
+ * pipe.getGenerator()); pipe.getGenerator().close(); }); Util.stream(pipe.getParser())...}
+ *
+ * <p>The producer must close the generator when it is done, after which the parser reports the end
+ * of the input. When the parser is closed first, further writes throw a <code>JsonException
+ * </code>.
+ *
+ * <p>Numbers keep the type with which they were written. When the parser side is copied to a
+ * generator with the methods in <code>Util</code>, an integer is written as an <code>int</code>, a
+ * <code>long</code> or a <code>BigInteger</code> and a <code>double</code> stays a <code>double
+ * </code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class JsonPipe {
+  private static final byte BIG_DECIMAL = 0;
+  private static final byte BIG_INTEGER = 1;
+  private static final byte DOUBLE = 2;
+  private static final byte LONG = 3;
+  private static final int SPINS = 128;
+
+  private volatile Thread consumer;
+  private final JsonGenerator generator = new PipeGenerator();
+  private final AtomicLong head = new AtomicLong();
+  private final int mask;
+  private final JsonParser parser = new JsonParserWrapper(new PipeParser());
+  private volatile boolean parserClosed;
+  private volatile Thread producer;
+  private volatile boolean producerClosed;
+  private final Slot[] slots;
+  private final AtomicLong tail = new AtomicLong();
+
+  public JsonPipe() {
+    this(1024);
+  }
+
+  /**
+   * Creates a pipe with a number of event slots.
+   *
+   * @param capacity the number of slots, which is rounded up to a power of two.
+   */
+  public JsonPipe(final int capacity) {
+    slots = new Slot[Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1];
+    mask = slots.length - 1;
+
+    for (int i = 0; i < slots.length; ++i) {
+      slots[i] = new Slot();
+    }
+  }
+
+  private static void wake(final Thread thread) {
+    if (thread != null) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Returns the generator side of the pipe. Only one thread at the time may use it.
+   *
+   * @return The generator.
+   */
+  public JsonGenerator getGenerator() {
+    return generator;
+  }
+
+  /**
+   * Returns the parser side of the pipe. Only one thread at the time may use it. Its <code>hasNext
+   * </code> method blocks until there is an event or the generator is closed.
+   *
+   * @return The parser.
+   */
+  public JsonParser getParser() {
+    return parser;
+  }
+
+  private static class Slot {
+    private double doubleValue;
+    private Event event;
+    private byte kind;
+    private long longValue;
+    private Object number;
+    private String string;
+  }
+
+  private class PipeGenerator implements JsonGenerator {
+    private int depth;
+    private boolean[] objects = new boolean[16];
+
+    public void close() {
+      producerClosed = true;
+      wake(consumer);
+    }
+
+    private void end() {
+      if (depth == 0) {
+        throw new JsonException("There is no array or object to end");
+      }
+
+      put(objects[--depth] ? END_OBJECT : END_ARRAY, null);
+    }
+
+    public void flush() {
+      // Nothing to do.
+    }
+
+    private Slot next() {
+      final long t = tail.get();
+
+      for (int spins = 0; t - head.get() >= slots.length; ++spins) {
+        if (parserClosed) {
+          throw new JsonException("The parser side of the pipe is closed");
+        }
+
+        if (spins < SPINS) {
+          Thread.onSpinWait();
+        } else {
+          producer = Thread.currentThread();
+
+          if (t - head.get() >= slots.length && !parserClosed) {
+            LockSupport.park(this);
+          }
+
+          producer = null;
+        }
+      }
+
+      if (parserClosed) {
+        throw new JsonException("The parser side of the pipe is closed");
+      }
+
+      return slots[(int) t & mask];
+    }
+
+    private void publish() {
+      tail.set(tail.get() + 1);
+      wake(consumer);
+    }
+
+    private void put(final Event event, final String string) {
+      final Slot slot = next();
+
+      slot.event = event;
+      slot.string = string;
+      publish();
+    }
+
+    private void putNumber(final byte kind, final long l, final double d, final Object number) {
+      final Slot slot = next();
+
+      slot.event = VALUE_NUMBER;
+      slot.kind = kind;
+      slot.longValue = l;
+      slot.doubleValue = d;
+      slot.number = number;
+      publish();
+    }
+
+    private void start(final boolean object) {
+      if (depth == objects.length) {
+        objects = Arrays.copyOf(objects, depth * 2);
+      }
+
+      objects[depth++] = object;
+      put(object ? START_OBJECT : START_ARRAY, null);
+    }
+
+    public JsonGenerator write(final JsonValue value) {
+      switch (value.getValueType()) {
+        case ARRAY:
+          writeStartArray();
+          value.asJsonArray().forEach(this::write);
+          return writeEnd();
+        case FALSE:
+          return write(false);
+        case NULL:
+          return writeNull();
+        case NUMBER:
+          final JsonNumber number = (JsonNumber) value;
+
+          return number.isIntegral()
+              ? write(number.bigIntegerValue())
+              : write(number.bigDecimalValue());
+        case OBJECT:
+          writeStartObject();
+          value.asJsonObject().forEach(this::write);
+          return writeEnd();
+        case STRING:
+          return write(((JsonString) value).getString());
+        default:
+          return write(true);
+      }
+    }
+
+    public JsonGenerator write(final String value) {
+      put(VALUE_STRING, value);
+
+      return this;
+    }
+
+    public JsonGenerator write(final BigDecimal value) {
+      putNumber(BIG_DECIMAL, 0, 0, value);
+
+      return this;
+    }
+
+    public JsonGenerator write(final BigInteger value) {
+      if (value.bitLength() < 64) {
+        return write(value.longValue());
+      }
+
+      putNumber(BIG_INTEGER, 0, 0, value);
+
+      return this;
+    }
+
+    public JsonGenerator write(final int value) {
+      return write((long) value);
+    }
+
+    public JsonGenerator write(final long value) {
+      putNumber(LONG, value, 0, null);
+
+      return this;
+    }
+
+    public JsonGenerator write(final double value) {
+      putNumber(DOUBLE, 0, value, null);
+
+      return this;
+    }
+
+    public JsonGenerator write(final boolean value) {
+      put(value ? VALUE_TRUE : VALUE_FALSE, null);
+
+      return this;
+    }
+
+    public JsonGenerator write(final String name, final JsonValue value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final String value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final BigInteger value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final BigDecimal value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final int value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final long value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final double value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator write(final String name, final boolean value) {
+      return writeKey(name).write(value);
+    }
+
+    public JsonGenerator writeEnd() {
+      end();
+
+      return this;
+    }
+
+    public JsonGenerator writeKey(final String name) {
+      put(KEY_NAME, name);
+
+      return this;
+    }
+
+    public JsonGenerator writeNull() {
+      put(VALUE_NULL, null);
+
+      return this;
+    }
+
+    public JsonGenerator writeNull(final String name) {
+      return writeKey(name).writeNull();
+    }
+
+    public JsonGenerator writeStartArray() {
+      start(false);
+
+      return this;
+    }
+
+    public JsonGenerator writeStartArray(final String name) {
+      return writeKey(name).writeStartArray();
+    }
+
+    public JsonGenerator writeStartObject() {
+      start(true);
+
+      return this;
+    }
+
+    public JsonGenerator writeStartObject(final String name) {
+      return writeKey(name).writeStartObject();
+    }
+  }
+
+  private class PipeParser implements TypedNumberParser {
+    private double doubleValue;
+    private Event event;
+    private byte kind;
+    private long longValue;
+    private Object number;
+    private String string;
+
+    public void close() {
+      parserClosed = true;
+      wake(producer);
+    }
+
+    public BigDecimal getBigDecimal() {
+      switch (kind) {
+        case BIG_DECIMAL:
+          return (BigDecimal) number;
+        case BIG_INTEGER:
+          return new BigDecimal((BigInteger) number);
+        case DOUBLE:
+          return BigDecimal.valueOf(doubleValue);
+        default:
+          return BigDecimal.valueOf(longValue);
+      }
+    }
+
+    public BigInteger getBigInteger() {
+      switch (kind) {
+        case BIG_DECIMAL:
+          return ((BigDecimal) number).toBigInteger();
+        case BIG_INTEGER:
+          return (BigInteger) number;
+        case DOUBLE:
+          return BigDecimal.valueOf(doubleValue).toBigInteger();
+        default:
+          return BigInteger.valueOf(longValue);
+      }
+    }
+
+    public double getDouble() {
+      switch (kind) {
+        case BIG_DECIMAL:
+        case BIG_INTEGER:
+          return ((Number) number).doubleValue();
+        case DOUBLE:
+          return doubleValue;
+        default:
+          return longValue;
+      }
+    }
+
+    public int getInt() {
+      return (int) getLong();
+    }
+
+    public JsonLocation getLocation() {
+      return null;
+    }
+
+    public long getLong() {
+      switch (kind) {
+        case BIG_DECIMAL:
+        case BIG_INTEGER:
+          return ((Number) number).longValue();
+        case DOUBLE:
+          return (long) doubleValue;
+        default:
+          return longValue;
+      }
+    }
+
+    public NumberType getNumberType() {
+      if (event != VALUE_NUMBER) {
+        return null;
+      }
+
+      switch (kind) {
+        case BIG_DECIMAL:
+          return NumberType.BIG_DECIMAL;
+        case BIG_INTEGER:
+          return NumberType.BIG_INTEGER;
+        case DOUBLE:
+          return NumberType.DOUBLE;
+        default:
+          return longValue == (int) longValue ? NumberType.INT : NumberType.LONG;
+      }
+    }
+
+    public String getString() {
+      if (event != VALUE_NUMBER) {
+        return string;
+      }
+
+      switch (kind) {
+        case BIG_DECIMAL:
+        case BIG_INTEGER:
+          return number.toString();
+        case DOUBLE:
+          return Double.toString(doubleValue);
+        default:
+          return Long.toString(longValue);
+      }
+    }
+
+    public boolean hasNext() {
+      final long h = head.get();
+
+      for (int spins = 0; h == tail.get(); ++spins) {
+        if (producerClosed) {
+          return h != tail.get();
+        }
+
+        if (spins < SPINS) {
+          Thread.onSpinWait();
+        } else {
+          consumer = Thread.currentThread();
+
+          if (h == tail.get() && !producerClosed) {
+            LockSupport.park(this);
+          }
+
+          consumer = null;
+        }
+      }
+
+      return true;
+    }
+
+    public boolean isDouble() {
+      return event == VALUE_NUMBER && kind == DOUBLE;
+    }
+
+    public boolean isIntegralNumber() {
+      return kind == LONG || kind == BIG_INTEGER;
+    }
+
+    public Event next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      final long h = head.get();
+      final Slot slot = slots[(int) h & mask];
+
+      event = slot.event;
+      string = slot.string;
+      kind = slot.kind;
+      longValue = slot.longValue;
+      doubleValue = slot.doubleValue;
+      number = slot.number;
+      slot.string = null;
+      slot.number = null;
+      head.set(h + 1);
+      wake(producer);
+
+      return event;
+    }
+  }
+}
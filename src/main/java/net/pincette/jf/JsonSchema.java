@@ -0,0 +1,251 @@
+package net.pincette.jf;
+
+import static javax.json.JsonValue.ValueType.ARRAY;
+import static javax.json.JsonValue.ValueType.OBJECT;
+import static javax.json.JsonValue.ValueType.STRING;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * A JSON Schema that is compiled once for <code>ValidatingGeneratorFilter</code> and <code>
+ * ValidatingParser</code>. Only a subset is supported: <code>type</code>, <code>required</code>,
+ * <code>properties</code>, <code>items</code> with one schema, <code>enum</code> with scalar
+ * values, <code>minimum</code>, <code>maximum</code>, <code>maxLength</code> and <code>maxItems
+ * </code>. The other keywords are ignored. A compiled schema is immutable, so it can be shared
+ * between threads.
+ *
+ * @author Werner Donn\u00e9
+ */
+public final class JsonSchema {
+  static final int ARRAY_TYPE = 1;
+  static final int BOOLEAN_TYPE = 2;
+  static final int INTEGER_TYPE = 4;
+  static final int NULL_TYPE = 8;
+  static final int NUMBER_TYPE = 16;
+  static final int OBJECT_TYPE = 32;
+  static final int STRING_TYPE = 64;
+  static final int ANY_TYPE = 127;
+
+  private static final Map<String, Integer> TYPES =
+      Map.of(
+          "array", ARRAY_TYPE,
+          "boolean", BOOLEAN_TYPE,
+          "integer", INTEGER_TYPE,
+          "null", NULL_TYPE,
+          "number", NUMBER_TYPE | INTEGER_TYPE,
+          "object", OBJECT_TYPE,
+          "string", STRING_TYPE);
+
+  final Node root;
+
+  private JsonSchema(final Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Compiles <code>schema</code>.
+   *
+   * @param schema the given schema.
+   * @return The compiled schema.
+   * @throws JsonException when the schema uses the supported keywords incorrectly.
+   */
+  public static JsonSchema compile(final JsonObject schema) {
+    return new JsonSchema(node(schema));
+  }
+
+  private static BigDecimal decimal(final JsonObject schema, final String keyword) {
+    return schema.containsKey(keyword) ? number(schema, keyword).bigDecimalValue() : null;
+  }
+
+  private static Set<Object> enumeration(final JsonObject schema) {
+    if (!schema.containsKey("enum")) {
+      return null;
+    }
+
+    if (schema.get("enum").getValueType() != ARRAY) {
+      throw new JsonException("The keyword enum should have an array");
+    }
+
+    final Set<Object> result = new HashSet<>();
+
+    for (JsonValue value : schema.getJsonArray("enum")) {
+      result.add(enumValue(value));
+    }
+
+    return result;
+  }
+
+  private static Object enumValue(final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+      case OBJECT:
+        throw new JsonException("Only scalar enum values are supported");
+      case FALSE:
+        return false;
+      case NULL:
+        return JsonValue.NULL;
+      case NUMBER:
+        return normalize(((JsonNumber) value).bigDecimalValue());
+      case STRING:
+        return ((JsonString) value).getString();
+      default:
+        return true;
+    }
+  }
+
+  private static Node node(final JsonValue schema) {
+    if (schema.getValueType() != OBJECT) {
+      throw new JsonException("A schema should be an object");
+    }
+
+    final JsonObject object = schema.asJsonObject();
+    final List<String> required = required(object);
+
+    return new Node(
+        types(object),
+        properties(object),
+        required.toArray(new String[0]),
+        object.containsKey("items") ? node(object.get("items")) : null,
+        enumeration(object),
+        decimal(object, "minimum"),
+        decimal(object, "maximum"),
+        object.containsKey("maxLength") ? number(object, "maxLength").longValue() : -1,
+        object.containsKey("maxItems") ? number(object, "maxItems").longValue() : -1);
+  }
+
+  static Object normalize(final BigDecimal value) {
+    return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+  }
+
+  private static JsonNumber number(final JsonObject schema, final String keyword) {
+    try {
+      return schema.getJsonNumber(keyword);
+    } catch (ClassCastException e) {
+      throw new JsonException("The keyword " + keyword + " should have a number");
+    }
+  }
+
+  private static Map<String, Node> properties(final JsonObject schema) {
+    if (!schema.containsKey("properties")) {
+      return null;
+    }
+
+    if (schema.get("properties").getValueType() != OBJECT) {
+      throw new JsonException("The keyword properties should have an object");
+    }
+
+    final Map<String, Node> result = new HashMap<>();
+
+    schema.getJsonObject("properties").forEach((k, v) -> result.put(k, node(v)));
+
+    return result;
+  }
+
+  private static List<String> required(final JsonObject schema) {
+    if (!schema.containsKey("required")) {
+      return List.of();
+    }
+
+    if (schema.get("required").getValueType() != ARRAY) {
+      throw new JsonException("The keyword required should have an array");
+    }
+
+    return schema.getJsonArray("required").stream()
+        .map(JsonSchema::string)
+        .distinct()
+        .collect(Collectors.toList());
+  }
+
+  private static String string(final JsonValue value) {
+    if (value.getValueType() != STRING) {
+      throw new JsonException("Expected a string instead of " + value);
+    }
+
+    return ((JsonString) value).getString();
+  }
+
+  private static int type(final String name) {
+    final Integer result = TYPES.get(name);
+
+    if (result == null) {
+      throw new JsonException("Unknown type " + name);
+    }
+
+    return result;
+  }
+
+  private static int types(final JsonObject schema) {
+    final JsonValue value = schema.get("type");
+
+    if (value == null) {
+      return ANY_TYPE;
+    }
+
+    if (value.getValueType() == ARRAY) {
+      return value.asJsonArray().stream()
+          .map(JsonSchema::string)
+          .mapToInt(JsonSchema::type)
+          .reduce(0, (t1, t2) -> t1 | t2);
+    }
+
+    return type(string(value));
+  }
+
+  /** The compiled form of a schema and its subschemas. */
+  static class Node {
+    final Set<Object> enumeration;
+    final Node items;
+    final BigDecimal maximum;
+    final long maxItems;
+    final long maxLength;
+    final BigDecimal minimum;
+    final Map<String, Node> properties;
+    final String[] required;
+    final Map<String, Integer> requiredIndex = new HashMap<>();
+    final int types;
+
+    private Node(
+        final int types,
+        final Map<String, Node> properties,
+        final String[] required,
+        final Node items,
+        final Set<Object> enumeration,
+        final BigDecimal minimum,
+        final BigDecimal maximum,
+        final long maxLength,
+        final long maxItems) {
+      this.types = types;
+      this.properties = properties;
+      this.required = required;
+      this.items = items;
+      this.enumeration = enumeration;
+      this.minimum = minimum;
+      this.maximum = maximum;
+      this.maxLength = maxLength;
+      this.maxItems = maxItems;
+
+      for (int i = 0; i < required.length; ++i) {
+        requiredIndex.put(required[i], i);
+      }
+    }
+
+    Node child(final String name) {
+      return properties != null ? properties.get(name) : null;
+    }
+
+    boolean hasNumberConstraints() {
+      return minimum != null || maximum != null || enumeration != null;
+    }
+  }
+}
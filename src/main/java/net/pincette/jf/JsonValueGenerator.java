@@ -1,8 +1,8 @@
 package net.pincette.jf;
 
-import static javax.json.Json.createValue;
 import static javax.json.JsonValue.FALSE;
 import static javax.json.JsonValue.TRUE;
+import static net.pincette.jf.Provider.createValue;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -11,7 +11,8 @@ import javax.json.stream.JsonGenerator;
 
 /**
  * The <code>write</code> methods call <code>JsonValue</code> variants for scalar values, so only
- * those have to be overridden.
+ * those have to be overridden. Note that <code>JsonGeneratorFilter</code> only does this when a
+ * subclass overrides the <code>JsonValue</code> variants.
  *
  * @author Werner Donn\u00e9
  */
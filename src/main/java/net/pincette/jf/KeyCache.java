@@ -0,0 +1,53 @@
+package net.pincette.jf;
+
+/**
+ * A bounded cache of key names. Repeated keys are returned as the same <code>String</code>
+ * instance, so the objects that are built from a stream of documents share them. A Jackson factory
+ * already canonicalizes key names for all the parsers it creates, unless that feature is disabled.
+ * This cache also works across factories and for other parsers. It can be shared by several
+ * threads. When two keys fall in the same slot the last one wins, which only costs a duplicate.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class KeyCache {
+  private final int mask;
+  private final String[] table;
+
+  public KeyCache() {
+    this(1024);
+  }
+
+  /**
+   * Creates a cache with a maximum number of entries.
+   *
+   * @param size the maximum number of entries, which is rounded up to a power of two.
+   */
+  public KeyCache(final int size) {
+    table = new String[Integer.highestOneBit(Math.max(size - 1, 1)) << 1];
+    mask = table.length - 1;
+  }
+
+  /**
+   * Returns the cached instance for <code>key</code>.
+   *
+   * @param key the given key.
+   * @return The cached instance or <code>key</code> itself if it wasn't in the cache yet.
+   */
+  public String intern(final String key) {
+    if (key == null) {
+      return null;
+    }
+
+    final int hash = key.hashCode();
+    final int index = (hash ^ (hash >>> 16)) & mask;
+    final String cached = table[index];
+
+    if (cached == key || key.equals(cached)) {
+      return cached;
+    }
+
+    table[index] = key;
+
+    return key;
+  }
+}
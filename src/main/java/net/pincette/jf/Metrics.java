@@ -0,0 +1,30 @@
+package net.pincette.jf;
+
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Receives the measurements of <code>MetricsGeneratorFilter</code> and <code>MetricsParser</code>.
+ * An implementation may be shared by several threads.
+ *
+ * @author Werner Donn\u00e9
+ */
+public interface Metrics {
+  /** Is called when a root value is complete. */
+  void document();
+
+  /**
+   * Is called for every event.
+   *
+   * @param event the event. A value that is written as a whole counts as one event.
+   * @param bytes the estimated number of bytes of the key or the value.
+   * @param depth the nesting depth after the event.
+   */
+  void event(Event event, long bytes, int depth);
+
+  /**
+   * Is called with the time spent in the next filter element or in the parser that is wrapped.
+   *
+   * @param nanos the time in nanoseconds.
+   */
+  void time(long nanos);
+}
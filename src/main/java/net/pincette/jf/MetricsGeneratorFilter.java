@@ -0,0 +1,369 @@
+package net.pincette.jf;
+
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_FALSE;
+import static javax.json.stream.JsonParser.Event.VALUE_NULL;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static javax.json.stream.JsonParser.Event.VALUE_TRUE;
+import static net.pincette.jf.Util.estimateSize;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser.Event;
+
+/**
+ * Measures what passes through it and how much time the rest of the chain takes. It can be put
+ * anywhere in a chain. The measurements go to a <code>Metrics</code> implementation, which may be
+ * shared. Put one before and one after a filter to see what that filter costs.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class MetricsGeneratorFilter extends JsonGeneratorFilter {
+  private int depth;
+  private final Metrics metrics;
+  private boolean[] objects = new boolean[16];
+
+  public MetricsGeneratorFilter(final Metrics metrics) {
+    this.metrics = metrics;
+  }
+
+  static Event event(final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+        return START_ARRAY;
+      case FALSE:
+        return VALUE_FALSE;
+      case NULL:
+        return VALUE_NULL;
+      case NUMBER:
+        return VALUE_NUMBER;
+      case OBJECT:
+        return START_OBJECT;
+      case STRING:
+        return VALUE_STRING;
+      default:
+        return VALUE_TRUE;
+    }
+  }
+
+  private void key(final String name) {
+    metrics.event(KEY_NAME, name.length() + 3L, depth);
+  }
+
+  @Override
+  public void reset() {
+    depth = 0;
+    super.reset();
+  }
+
+  private void start(final boolean object) {
+    if (depth == objects.length) {
+      objects = Arrays.copyOf(objects, depth * 2);
+    }
+
+    objects[depth++] = object;
+    metrics.event(object ? START_OBJECT : START_ARRAY, 0, depth);
+  }
+
+  private JsonGenerator timed(final long start) {
+    metrics.time(System.nanoTime() - start);
+
+    return this;
+  }
+
+  private void value(final Event event, final long bytes) {
+    metrics.event(event, bytes, depth);
+
+    if (depth == 0) {
+      metrics.document();
+    }
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    value(event(value), estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    value(VALUE_STRING, value.length() + 2L);
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    value(VALUE_NUMBER, value.precision() + 2L);
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    value(VALUE_NUMBER, value.bitLength() / 3 + 1L);
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    value(VALUE_NUMBER, estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    value(VALUE_NUMBER, estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    value(VALUE_NUMBER, 16);
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    value(value ? VALUE_TRUE : VALUE_FALSE, value ? 4 : 5);
+
+    final long start = System.nanoTime();
+
+    super.write(value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    key(name);
+    value(event(value), estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final String value) {
+    key(name);
+    value(VALUE_STRING, value.length() + 2L);
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigInteger value) {
+    key(name);
+    value(VALUE_NUMBER, value.bitLength() / 3 + 1L);
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    key(name);
+    value(VALUE_NUMBER, value.precision() + 2L);
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final int value) {
+    key(name);
+    value(VALUE_NUMBER, estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final long value) {
+    key(name);
+    value(VALUE_NUMBER, estimateSize(value));
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final double value) {
+    key(name);
+    value(VALUE_NUMBER, 16);
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final boolean value) {
+    key(name);
+    value(value ? VALUE_TRUE : VALUE_FALSE, value ? 4 : 5);
+
+    final long start = System.nanoTime();
+
+    super.write(name, value);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    final long start = System.nanoTime();
+
+    super.writeEnd();
+    timed(start);
+
+    metrics.event(objects[--depth] ? END_OBJECT : END_ARRAY, 0, depth);
+
+    if (depth == 0) {
+      metrics.document();
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    key(name);
+
+    final long start = System.nanoTime();
+
+    super.writeKey(name);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    value(VALUE_NULL, 4);
+
+    final long start = System.nanoTime();
+
+    super.writeNull();
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    key(name);
+    value(VALUE_NULL, 4);
+
+    final long start = System.nanoTime();
+
+    super.writeNull(name);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    start(false);
+
+    final long start = System.nanoTime();
+
+    super.writeStartArray();
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    key(name);
+    start(false);
+
+    final long start = System.nanoTime();
+
+    super.writeStartArray(name);
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    start(true);
+
+    final long start = System.nanoTime();
+
+    super.writeStartObject();
+
+    return timed(start);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    key(name);
+    start(true);
+
+    final long start = System.nanoTime();
+
+    super.writeStartObject(name);
+
+    return timed(start);
+  }
+}
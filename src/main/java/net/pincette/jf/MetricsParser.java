@@ -0,0 +1,102 @@
+package net.pincette.jf;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * Measures the events a parser produces and the time it takes to produce them. The measurements
+ * go to a <code>Metrics</code> implementation, which may be shared. The time includes <code>hasNext
+ * </code>, because a parser may read ahead there. The bytes are estimated with the lengths of the
+ * keys and the string and number values. When the wrapped parser is a <code>JacksonParser</code>
+ * those lengths are taken from the Jackson text buffer. Otherwise the keys and values are decoded.
+ * When an array or object is skipped only its end event is measured, not the events in it.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class MetricsParser extends JsonParserWrapper {
+  private final JacksonParser jackson;
+  private final Metrics metrics;
+
+  public MetricsParser(final JsonParser delegate, final Metrics metrics) {
+    super(delegate);
+    this.metrics = metrics;
+    jackson = delegate instanceof JacksonParser ? (JacksonParser) delegate : null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    final long start = System.nanoTime();
+    final boolean result = super.hasNext();
+
+    metrics.time(System.nanoTime() - start);
+
+    return result;
+  }
+
+  private long length() {
+    return jackson != null ? jackson.getTextLength() : getString().length();
+  }
+
+  @Override
+  public Event next() {
+    final long start = System.nanoTime();
+    final Event event = super.next();
+
+    metrics.time(System.nanoTime() - start);
+
+    switch (event) {
+      case START_ARRAY:
+      case START_OBJECT:
+      case END_ARRAY:
+      case END_OBJECT:
+        metrics.event(event, 0, getDepth());
+        break;
+      case KEY_NAME:
+        metrics.event(event, length() + 3L, getDepth());
+        break;
+      case VALUE_NUMBER:
+        metrics.event(event, length(), getDepth());
+        break;
+      case VALUE_STRING:
+        metrics.event(event, length() + 2L, getDepth());
+        break;
+      case VALUE_FALSE:
+        metrics.event(event, 5, getDepth());
+        break;
+      default:
+        metrics.event(event, 4, getDepth());
+        break;
+    }
+
+    if (getDepth() == 0 && event != Event.KEY_NAME) {
+      metrics.document();
+    }
+
+    return event;
+  }
+
+  private void skip(final Runnable skip, final Event end) {
+    final int depth = getDepth();
+    final long start = System.nanoTime();
+
+    skip.run();
+    metrics.time(System.nanoTime() - start);
+
+    if (getDepth() < depth) {
+      metrics.event(end, 0, getDepth());
+
+      if (getDepth() == 0) {
+        metrics.document();
+      }
+    }
+  }
+
+  @Override
+  public void skipArray() {
+    skip(super::skipArray, Event.END_ARRAY);
+  }
+
+  @Override
+  public void skipObject() {
+    skip(super::skipObject, Event.END_OBJECT);
+  }
+}
@@ -0,0 +1,120 @@
+package net.pincette.jf;
+
+import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import java.nio.ByteBuffer;
+
+/**
+ * A JSON parser that is fed with chunks of bytes as they arrive, without ever blocking. It is based
+ * on the Jackson non-blocking parser. You can use it as follows:
+ *
+ * <p>{@code parser.feed(chunk); while (parser.hasNext()) { ... parser.next() ... }}
+ *
+ * <p>When <code>hasNext</code> returns <code>false</code> and <code>needMoreInput</code> returns
+ * <code>true</code>, all input has been consumed and the next chunk should be fed. A chunk may only
+ * be fed in that state. After the last chunk you call <code>endOfInput</code>, after which <code>
+ * hasNext</code> returning <code>false</code> means the end of the document.
+ *
+ * <p>The parser keeps a reference to the fed bytes until they are consumed, so the caller shouldn't
+ * reuse them before that.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class NonBlockingJacksonParser extends JacksonParser {
+  private static final JsonFactory FACTORY = new JsonFactory();
+
+  private byte[] buffer;
+  private final ByteArrayFeeder feeder;
+
+  public NonBlockingJacksonParser() {
+    this(FACTORY);
+  }
+
+  /**
+   * Creates a parser with a given factory, which can carry the parser features.
+   *
+   * @param factory the given factory.
+   */
+  public NonBlockingJacksonParser(final JsonFactory factory) {
+    this(factory, null);
+  }
+
+  /**
+   * Creates a parser with a given factory and a key cache.
+   *
+   * @param factory the given factory.
+   * @param keys the key cache. It may be <code>null</code>.
+   */
+  public NonBlockingJacksonParser(final JsonFactory factory, final KeyCache keys) {
+    this(tryToGetRethrow(factory::createNonBlockingByteArrayParser).orElse(null), keys);
+  }
+
+  private NonBlockingJacksonParser(
+      final com.fasterxml.jackson.core.JsonParser parser, final KeyCache keys) {
+    super(parser, keys);
+    feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+  }
+
+  /** Signals there will be no more input. */
+  public void endOfInput() {
+    feeder.endOfInput();
+  }
+
+  public NonBlockingJacksonParser feed(final byte[] bytes) {
+    return feed(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Feeds a chunk of bytes to the parser.
+   *
+   * @param bytes the given bytes.
+   * @param offset the position of the chunk in <code>bytes</code>.
+   * @param length the length of the chunk.
+   * @return The parser itself.
+   */
+  public NonBlockingJacksonParser feed(final byte[] bytes, final int offset, final int length) {
+    tryToDoRethrow(() -> feeder.feedInput(bytes, offset, offset + length));
+
+    return this;
+  }
+
+  /**
+   * Feeds the remaining bytes of <code>buffer</code> to the parser. The position of the buffer is
+   * moved to its limit. A buffer without a backing array, such as a direct buffer, is copied into
+   * a buffer of the parser.
+   *
+   * @param buffer the given buffer.
+   * @return The parser itself.
+   */
+  public NonBlockingJacksonParser feed(final ByteBuffer buffer) {
+    final int length = buffer.remaining();
+
+    if (buffer.hasArray()) {
+      feed(buffer.array(), buffer.arrayOffset() + buffer.position(), length);
+    } else {
+      if (this.buffer == null || this.buffer.length < length) {
+        this.buffer = new byte[length];
+      }
+
+      buffer.duplicate().get(this.buffer, 0, length);
+      feed(this.buffer, 0, length);
+    }
+
+    buffer.position(buffer.limit());
+
+    return this;
+  }
+
+  /**
+   * Returns <code>true</code> when all fed input has been consumed and <code>endOfInput</code>
+   * wasn't called yet.
+   *
+   * @return Whether the parser needs more input.
+   */
+  public boolean needMoreInput() {
+    return feeder.needMoreInput();
+  }
+}
@@ -0,0 +1,245 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.supplyAsync;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Processes the elements of the top array in parallel. It is meant to come after an <code>
+ * ArrayStreamingGeneratorFilter</code>, which delivers the elements as values. Every element is run
+ * through a function or a filter chain on an executor, which can also be one with virtual threads.
+ * The results are written to the next filter element in the original order. The number of
+ * elements in flight is bounded. When it is reached the writing thread waits for the oldest
+ * element, which provides backpressure.
+ *
+ * <p>With a filter chain every worker thread builds its own chain with the supplier and reuses it
+ * for all the elements it processes. Elements that arrive as a sequence of events are passed on
+ * unchanged, after the pending results. So is everything when the top value is not an array.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ParallelGeneratorFilter extends JsonGeneratorFilter {
+  private boolean array;
+  private int depth;
+  private Executor executor = ForkJoinPool.commonPool();
+  private int maxInFlight = Runtime.getRuntime().availableProcessors() * 4;
+  private final Function<JsonValue, Result> process;
+  private final Deque<CompletableFuture<Result>> window = new ArrayDeque<>();
+
+  /**
+   * Creates a filter that replaces every element with the result of <code>function</code>.
+   *
+   * @param function the function for an element. When it returns <code>null</code> the element is
+   *     dropped.
+   */
+  public ParallelGeneratorFilter(final Function<JsonValue, JsonValue> function) {
+    process =
+        value -> {
+          final JsonValue result = function.apply(value);
+
+          return generator -> {
+            if (result != null) {
+              generator.write(result);
+            }
+          };
+        };
+  }
+
+  /**
+   * Creates a filter that runs every element through a filter chain.
+   *
+   * @param chain produces a new filter chain for every worker thread. The last element of a chain
+   *     should not have a successor yet.
+   */
+  public ParallelGeneratorFilter(final Supplier<JsonGeneratorFilter> chain) {
+    final ThreadLocal<ChainRunner> runners = ThreadLocal.withInitial(() -> new ChainRunner(chain));
+
+    process =
+        value -> {
+          final EventBuffer buffer = runners.get().run(value);
+
+          return new Result() {
+            @Override
+            public void close() {
+              buffer.close();
+            }
+
+            @Override
+            public void write(final JsonGenerator generator) {
+              try {
+                buffer.replay(generator, null);
+              } finally {
+                buffer.close();
+              }
+            }
+          };
+        };
+  }
+
+  private static RuntimeException unwrap(final CompletionException e) {
+    return e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+  }
+
+  private void drain() {
+    while (!window.isEmpty()) {
+      writeNext();
+    }
+  }
+
+  @Override
+  public void flush() {
+    drain();
+    super.flush();
+  }
+
+  private JsonGenerator nested(final Runnable forward, final int change) {
+    drain();
+    depth += change;
+    forward.run();
+
+    return this;
+  }
+
+  /** Releases the results that are in flight or ready without writing them. */
+  @Override
+  public void reset() {
+    window.forEach(
+        f -> {
+          if (!f.cancel(false)) {
+            f.thenAccept(Result::close);
+          }
+        });
+    window.clear();
+    array = false;
+    depth = 0;
+    super.reset();
+  }
+
+  /**
+   * Sets the executor for the elements. The default is the common fork join pool.
+   *
+   * @param executor the given executor.
+   * @return The filter.
+   */
+  public ParallelGeneratorFilter withExecutor(final Executor executor) {
+    this.executor = executor;
+
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of elements that are in flight. The default is four times the number
+   * of processors.
+   *
+   * @param maxInFlight the maximum number.
+   * @return The filter.
+   */
+  public ParallelGeneratorFilter withMaxInFlight(final int maxInFlight) {
+    this.maxInFlight = maxInFlight;
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    if (depth == 1 && array) {
+      while (window.size() >= maxInFlight) {
+        writeNext();
+      }
+
+      window.addLast(supplyAsync(() -> process.apply(value), executor, Result::close));
+
+      return this;
+    }
+
+    return nested(() -> super.write(value), 0);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    return nested(() -> super.write(name, value), 0);
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    return nested(super::writeEnd, -1);
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    return nested(() -> super.writeKey(name), 0);
+  }
+
+  private void writeNext() {
+    final Result result;
+
+    try {
+      result = window.removeFirst().join();
+    } catch (CompletionException e) {
+      reset();
+      throw unwrap(e);
+    }
+
+    if (getNext() != null) {
+      result.write(getNext());
+    } else {
+      result.close();
+    }
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    return write(JsonValue.NULL);
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    return nested(() -> super.writeNull(name), 0);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    if (depth == 0) {
+      array = true;
+    }
+
+    return nested(super::writeStartArray, 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    return nested(() -> super.writeStartArray(name), 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    if (depth == 0) {
+      array = false;
+    }
+
+    return nested(super::writeStartObject, 1);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    return nested(() -> super.writeStartObject(name), 1);
+  }
+
+  /** The processed element, which is either written or released. */
+  private interface Result {
+    default void close() {
+      // Nothing to release.
+    }
+
+    void write(JsonGenerator generator);
+  }
+}
@@ -0,0 +1,29 @@
+package net.pincette.jf;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event for reading a complete object or array from a parser. It also covers the elements of
+ * <code>Util.stream</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+@Name("net.pincette.jf.Parse")
+@Label("JSON Parse")
+@Category("JSON")
+@Description("Reads an object or an array from a parser")
+class ParseEvent extends Event {
+  @Label("Depth")
+  int depth;
+
+  @Label("Size")
+  @Description("The number of entries or elements")
+  int size;
+
+  @Label("Type")
+  String type;
+}
@@ -0,0 +1,186 @@
+package net.pincette.jf;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compiled set of paths. A path is either a JSON Pointer or a dot-separated list of keys. A
+ * segment that is a number also matches that index in an array and the segment <code>*</code>
+ * matches any key or index. Every node stands for a selected position in a document. The special
+ * node <code>ALL</code> selects the entire subtree.
+ *
+ * <p>The subtree of <code>*</code> is merged into its concrete siblings when the tree is compiled.
+ * With the paths <code>a.b</code> and <code>*.c</code> the node of <code>a</code> selects both
+ * <code>b</code> and <code>c</code>. A lookup therefore only has to follow one branch.
+ *
+ * @author Werner Donn\u00e9
+ */
+class PathTree {
+  static final PathTree ALL = new PathTree();
+
+  private static final String ANY = "*";
+
+  private PathTree any;
+  private final Map<Integer, PathTree> indexes = new HashMap<>();
+  private final Map<String, PathTree> keys = new HashMap<>();
+
+  private PathTree() {}
+
+  private static PathTree add(final PathTree node, final String segment, final boolean last) {
+    if (node == ALL) {
+      return ALL;
+    }
+
+    final PathTree child = last ? ALL : node.existing(segment);
+
+    if (ANY.equals(segment)) {
+      node.any = last || node.any == null ? child : node.any;
+
+      return node.any;
+    }
+
+    node.keys.merge(segment, child, (o, n) -> n == ALL ? ALL : o);
+
+    return node.keys.get(segment);
+  }
+
+  /**
+   * Compiles a collection of paths.
+   *
+   * @param paths the given paths.
+   * @return The root of the tree.
+   */
+  static PathTree compile(final Collection<String> paths) {
+    final PathTree root = new PathTree();
+
+    for (String path : paths) {
+      final String[] segments = segments(path);
+      PathTree node = root;
+
+      if (segments.length == 0) {
+        return ALL;
+      }
+
+      for (int i = 0; i < segments.length; ++i) {
+        node = add(node, segments[i], i == segments.length - 1);
+      }
+    }
+
+    root.resolve();
+
+    return root;
+  }
+
+  private PathTree existing(final String segment) {
+    final PathTree result = ANY.equals(segment) ? any : keys.get(segment);
+
+    return result != null ? result : new PathTree();
+  }
+
+  private static boolean isIndex(final String segment) {
+    return !segment.isEmpty()
+        && segment.length() < 10
+        && segment.chars().allMatch(c -> c >= '0' && c <= '9');
+  }
+
+  /**
+   * Returns the union of two trees. The given trees are not changed, but the result may share
+   * subtrees with them.
+   */
+  private static PathTree merge(final PathTree tree1, final PathTree tree2) {
+    if (tree1 == null || tree2 == ALL) {
+      return tree2;
+    }
+
+    if (tree2 == null || tree1 == ALL) {
+      return tree1;
+    }
+
+    final PathTree result = new PathTree();
+
+    result.any = merge(tree1.any, tree2.any);
+    result.keys.putAll(tree1.keys);
+    tree2.keys.forEach((k, v) -> result.keys.merge(k, v, PathTree::merge));
+
+    return result;
+  }
+
+  /** Merges the subtree of <code>*</code> into the concrete children, recursively. */
+  private void resolve() {
+    if (this == ALL) {
+      return;
+    }
+
+    if (any != null) {
+      any.resolve();
+    }
+
+    keys.replaceAll(
+        (k, v) -> {
+          final PathTree child = merge(v, any);
+
+          child.resolve();
+
+          return child;
+        });
+
+    indexes.clear();
+    keys.forEach(
+        (k, v) -> {
+          if (isIndex(k)) {
+            indexes.put(Integer.parseInt(k), v);
+          }
+        });
+  }
+
+  private static String[] segments(final String path) {
+    if (path.isEmpty() || path.equals("/") || path.equals(".")) {
+      return new String[0];
+    }
+
+    if (path.startsWith("/")) {
+      final String[] result = path.substring(1).split("/", -1);
+
+      for (int i = 0; i < result.length; ++i) {
+        result[i] = result[i].replace("~1", "/").replace("~0", "~");
+      }
+
+      return result;
+    }
+
+    return path.split("\\.", -1);
+  }
+
+  /**
+   * Returns the node for an object key.
+   *
+   * @param key the given key.
+   * @return The node or <code>null</code> if the key is not selected.
+   */
+  PathTree child(final String key) {
+    if (this == ALL) {
+      return ALL;
+    }
+
+    final PathTree result = keys.get(key);
+
+    return result != null ? result : any;
+  }
+
+  /**
+   * Returns the node for an array index.
+   *
+   * @param index the given index.
+   * @return The node or <code>null</code> if the index is not selected.
+   */
+  PathTree child(final int index) {
+    if (this == ALL) {
+      return ALL;
+    }
+
+    final PathTree result = indexes.isEmpty() ? null : indexes.get(index);
+
+    return result != null ? result : any;
+  }
+}
@@ -0,0 +1,236 @@
+package net.pincette.jf;
+
+import static java.util.Arrays.asList;
+import static javax.json.JsonValue.ValueType.ARRAY;
+import static javax.json.JsonValue.ValueType.OBJECT;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Collection;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Lets only the values at the given paths through, together with the structures that contain them.
+ * A path is either a JSON Pointer such as <code>/customer/name</code> or a dot-separated list of
+ * keys such as <code>customer.name</code>. A numeric segment also selects that index in an array
+ * and the segment <code>*</code> selects any key or index. Everything below a selected path is
+ * kept. Values that are dropped are never forwarded and whole unselected structures only cost a
+ * depth counter. Objects and arrays that arrive as a <code>JsonValue</code> are projected as well.
+ * Only those that contain a selected path are walked. Scalar values are forwarded with their typed
+ * writers, so they are never boxed.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ProjectingGeneratorFilter extends JsonGeneratorFilter {
+  private final Projector projector;
+  private int skipping;
+
+  public ProjectingGeneratorFilter(final String... paths) {
+    this(asList(paths));
+  }
+
+  public ProjectingGeneratorFilter(final Collection<String> paths) {
+    projector = new Projector(PathTree.compile(paths));
+  }
+
+  private boolean accept() {
+    return skipping == 0 && projector.value() != null;
+  }
+
+  private boolean accept(final String name) {
+    return skipping == 0 && projector.key(name) != null && projector.value() != null;
+  }
+
+  @Override
+  public void reset() {
+    projector.reset();
+    skipping = 0;
+    super.reset();
+  }
+
+  private JsonGenerator start(final PathTree node, final boolean array, final Runnable forward) {
+    if (skipping > 0 || node == null) {
+      ++skipping;
+    } else {
+      projector.start(node, array);
+      forward.run();
+    }
+
+    return this;
+  }
+
+  private PathTree value(final String name) {
+    return skipping == 0 && projector.key(name) != null ? projector.value() : null;
+  }
+
+  /**
+   * A structure with this node has to be walked, because only some of its descendants are
+   * selected. Without a node nothing is selected and with <code>ALL</code> everything is.
+   */
+  private static boolean isPartial(final PathTree node) {
+    return node != null && node != PathTree.ALL;
+  }
+
+  private static boolean isStructure(final JsonValue value) {
+    return value.getValueType() == ARRAY || value.getValueType() == OBJECT;
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    if (skipping == 0 && isStructure(value) && isPartial(projector.peek())) {
+      return writeStructure(null, value);
+    }
+
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    return accept() ? super.write(value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    if (skipping == 0 && isStructure(value) && isPartial(projector.key(name))) {
+      return writeStructure(name, value);
+    }
+
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final String value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigInteger value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final int value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final long value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final double value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final boolean value) {
+    return accept(name) ? super.write(name, value) : this;
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    if (skipping > 0) {
+      --skipping;
+
+      return this;
+    }
+
+    projector.end();
+
+    return super.writeEnd();
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    return skipping == 0 && projector.key(name) != null ? super.writeKey(name) : this;
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    return accept() ? super.writeNull() : this;
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    return accept(name) ? super.writeNull(name) : this;
+  }
+
+  private JsonGenerator writeStructure(final String name, final JsonValue value) {
+    if (value.getValueType() == OBJECT) {
+      if (name != null) {
+        writeStartObject(name);
+      } else {
+        writeStartObject();
+      }
+
+      value.asJsonObject().forEach(this::write);
+    } else {
+      if (name != null) {
+        writeStartArray(name);
+      } else {
+        writeStartArray();
+      }
+
+      value.asJsonArray().forEach(this::write);
+    }
+
+    return writeEnd();
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    return start(skipping == 0 ? projector.value() : null, true, super::writeStartArray);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    return start(value(name), true, () -> super.writeStartArray(name));
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    return start(skipping == 0 ? projector.value() : null, false, super::writeStartObject);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    return start(value(name), false, () -> super.writeStartObject(name));
+  }
+}
@@ -0,0 +1,162 @@
+package net.pincette.jf;
+
+import static java.util.Arrays.asList;
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import javax.json.stream.JsonParser;
+
+/**
+ * Only produces the events for the values at the given paths, together with the structures that
+ * contain them. The paths are the same as for <code>ProjectingGeneratorFilter</code>. Unselected
+ * arrays and objects are skipped with <code>skipArray</code> and <code>skipObject</code> on the
+ * delegate, so with a <code>JacksonParser</code> they are never decoded. When a non-blocking
+ * delegate runs out of input during a skip, the skip continues after the next chunk has been fed.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ProjectingParser extends JsonParserWrapper {
+  private Event pending;
+  private final Projector projector;
+  private int skipping;
+
+  public ProjectingParser(final JsonParser delegate, final String... paths) {
+    this(delegate, asList(paths));
+  }
+
+  public ProjectingParser(final JsonParser delegate, final Collection<String> paths) {
+    super(delegate);
+    projector = new Projector(PathTree.compile(paths));
+  }
+
+  private static boolean isStart(final Event event) {
+    return event == START_ARRAY || event == START_OBJECT;
+  }
+
+  @Override
+  public boolean hasNext() {
+    skipRest();
+
+    if (skipping == 0 && pending == null) {
+      pending = nextSelected();
+    }
+
+    return pending != null;
+  }
+
+  /**
+   * Tells if the caller is in an array, taking into account the event that was read ahead.
+   */
+  private boolean inArray() {
+    return projector.inArray(isStart(pending) ? 1 : 0);
+  }
+
+  @Override
+  public Event next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    final Event result = pending;
+
+    pending = null;
+
+    return result;
+  }
+
+  private Event nextSelected() {
+    while (super.hasNext()) {
+      final Event event = super.next();
+
+      switch (event) {
+        case KEY_NAME:
+          if (projector.key(getString()) != null) {
+            return event;
+          }
+
+          skipValue();
+          break;
+        case START_ARRAY:
+        case START_OBJECT:
+          final PathTree node = projector.value();
+
+          if (node != null) {
+            projector.start(node, event == START_ARRAY);
+
+            return event;
+          }
+
+          skipStructure(event);
+          break;
+        case END_ARRAY:
+        case END_OBJECT:
+          projector.end();
+
+          return event;
+        default:
+          if (projector.value() != null) {
+            return event;
+          }
+
+          break;
+      }
+    }
+
+    return null;
+  }
+
+  private void skip(final Event end) {
+    if (pending == END_ARRAY || pending == END_OBJECT) {
+      if (pending == end) {
+        pending = null;
+      }
+    } else if (inArray() == (end == END_ARRAY)) {
+      skipping = 1;
+      skipRest();
+    }
+  }
+
+  @Override
+  public void skipArray() {
+    skip(END_ARRAY);
+  }
+
+  @Override
+  public void skipObject() {
+    skip(END_OBJECT);
+  }
+
+  private void skipRest() {
+    while (skipping > 0 && (pending != null || (pending = nextSelected()) != null)) {
+      if (isStart(pending)) {
+        ++skipping;
+      } else if (pending == END_ARRAY || pending == END_OBJECT) {
+        --skipping;
+      }
+
+      pending = null;
+    }
+  }
+
+  private void skipStructure(final Event start) {
+    if (start == START_ARRAY) {
+      super.skipArray();
+    } else {
+      super.skipObject();
+    }
+  }
+
+  private void skipValue() {
+    if (super.hasNext()) {
+      final Event event = super.next();
+
+      if (isStart(event)) {
+        skipStructure(event);
+      }
+    }
+  }
+}
@@ -0,0 +1,105 @@
+package net.pincette.jf;
+
+import java.util.Arrays;
+
+/**
+ * Tracks the position in a document against a <code>PathTree</code>. It is shared by the
+ * projecting filter and parser.
+ *
+ * @author Werner Donn\u00e9
+ */
+class Projector {
+  private int depth;
+  private int[] indexes = new int[16];
+  private PathTree[] nodes = new PathTree[16];
+  private PathTree pending;
+  private final PathTree root;
+
+  Projector(final PathTree root) {
+    this.root = root;
+  }
+
+  int depth() {
+    return depth;
+  }
+
+  void end() {
+    nodes[--depth] = null;
+    pending = null;
+  }
+
+  /**
+   * Tells if a structure on the stack is an array.
+   *
+   * @param up the number of levels above the current structure.
+   * @return Whether it is an array.
+   */
+  boolean inArray(final int up) {
+    final int i = depth - 1 - up;
+
+    return i >= 0 && indexes[i] >= 0;
+  }
+
+  /**
+   * Selects the next value with a key of the current object.
+   *
+   * @param name the key.
+   * @return The node for the value or <code>null</code> if it is not selected.
+   */
+  PathTree key(final String name) {
+    pending = depth > 0 ? nodes[depth - 1].child(name) : null;
+
+    return pending;
+  }
+
+  /**
+   * Returns the node for the next value without consuming its position.
+   *
+   * @return The node for the value or <code>null</code> if it is not selected.
+   */
+  PathTree peek() {
+    if (depth == 0) {
+      return root;
+    }
+
+    return indexes[depth - 1] >= 0 ? nodes[depth - 1].child(indexes[depth - 1]) : pending;
+  }
+
+  void reset() {
+    Arrays.fill(nodes, 0, depth, null);
+    depth = 0;
+    pending = null;
+  }
+
+  void start(final PathTree node, final boolean array) {
+    if (depth == nodes.length) {
+      nodes = Arrays.copyOf(nodes, depth * 2);
+      indexes = Arrays.copyOf(indexes, depth * 2);
+    }
+
+    nodes[depth] = node;
+    indexes[depth++] = array ? 0 : -1;
+  }
+
+  /**
+   * Consumes the position of the next value. In an array this is the next index and in an object
+   * it is the last key.
+   *
+   * @return The node for the value or <code>null</code> if it is not selected.
+   */
+  PathTree value() {
+    if (depth == 0) {
+      return root;
+    }
+
+    if (indexes[depth - 1] >= 0) {
+      return nodes[depth - 1].child(indexes[depth - 1]++);
+    }
+
+    final PathTree result = pending;
+
+    pending = null;
+
+    return result;
+  }
+}
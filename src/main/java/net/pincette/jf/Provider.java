@@ -0,0 +1,66 @@
+package net.pincette.jf;
+
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.JsonWriter;
+import javax.json.spi.JsonProvider;
+
+/**
+ * The methods of the <code>Json</code> class look up the provider with the service loader on every
+ * call. This class does it only once.
+ *
+ * @author Werner Donn\u00e9
+ */
+class Provider {
+  private static final JsonProvider PROVIDER = JsonProvider.provider();
+
+  private Provider() {}
+
+  static JsonArrayBuilder createArrayBuilder() {
+    return PROVIDER.createArrayBuilder();
+  }
+
+  static JsonObjectBuilder createObjectBuilder() {
+    return PROVIDER.createObjectBuilder();
+  }
+
+  static JsonString createValue(final String value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static JsonNumber createValue(final int value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static JsonNumber createValue(final long value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static JsonNumber createValue(final double value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static JsonNumber createValue(final BigDecimal value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static JsonNumber createValue(final BigInteger value) {
+    return PROVIDER.createValue(value);
+  }
+
+  static String toString(final JsonValue value) {
+    final StringWriter writer = new StringWriter();
+
+    try (JsonWriter w = PROVIDER.createWriter(writer)) {
+      w.write(value);
+    }
+
+    return writer.toString();
+  }
+}
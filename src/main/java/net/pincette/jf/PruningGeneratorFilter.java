@@ -0,0 +1,439 @@
+package net.pincette.jf;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Removes empty objects, empty arrays, nulls and empty strings in one pass. Each of them can be
+ * turned off. The removal is recursive, so an object or array that only contains removed values is
+ * removed as well. The top-level values are always kept. Nulls and empty strings are also removed
+ * from arrays, which shifts the positions of the elements that follow them.
+ *
+ * <p>The start of an object or array is held back until it is clear it will have content. The
+ * pending starts are kept on a stack of arrays, so no objects are allocated per event.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class PruningGeneratorFilter extends JsonGeneratorFilter {
+  private int depth;
+  private int emitted;
+  private String key;
+  private String[] names = new String[16];
+  private boolean[] objects = new boolean[16];
+  private boolean pruneEmptyArrays = true;
+  private boolean pruneEmptyObjects = true;
+  private boolean pruneEmptyStrings = true;
+  private boolean pruneNulls = true;
+
+  private void end() {
+    --depth;
+
+    if (emitted > depth) {
+      emitted = depth;
+      super.writeEnd();
+    } else if (depth == 0 || !(objects[depth] ? pruneEmptyObjects : pruneEmptyArrays)) {
+      ++depth;
+      open();
+      super.writeEnd();
+      --depth;
+      emitted = depth;
+    } else {
+      names[depth] = null;
+    }
+  }
+
+  /** Writes the pending starts. */
+  private void open() {
+    for (; emitted < depth; ++emitted) {
+      final String name = names[emitted];
+
+      names[emitted] = null;
+
+      if (objects[emitted]) {
+        if (name == null) {
+          super.writeStartObject();
+        } else {
+          super.writeStartObject(name);
+        }
+      } else if (name == null) {
+        super.writeStartArray();
+      } else {
+        super.writeStartArray(name);
+      }
+    }
+  }
+
+  private boolean pruneNull() {
+    return pruneNulls && depth > 0;
+  }
+
+  private boolean pruneString(final String value) {
+    return pruneEmptyStrings && depth > 0 && value.isEmpty();
+  }
+
+  @Override
+  public void reset() {
+    Arrays.fill(names, 0, depth, null);
+    depth = 0;
+    emitted = 0;
+    key = null;
+    super.reset();
+  }
+
+  private void start(final String name, final boolean object) {
+    if (depth == objects.length) {
+      names = Arrays.copyOf(names, depth * 2);
+      objects = Arrays.copyOf(objects, depth * 2);
+    }
+
+    names[depth] = name;
+    objects[depth++] = object;
+  }
+
+  private String takeKey() {
+    final String result = key;
+
+    key = null;
+
+    return result;
+  }
+
+  /**
+   * Turns the removal of empty arrays on or off. It is on by default.
+   *
+   * @param prune whether to remove them.
+   * @return The filter itself.
+   */
+  public PruningGeneratorFilter withPruneEmptyArrays(final boolean prune) {
+    pruneEmptyArrays = prune;
+
+    return this;
+  }
+
+  /**
+   * Turns the removal of empty objects on or off. It is on by default.
+   *
+   * @param prune whether to remove them.
+   * @return The filter itself.
+   */
+  public PruningGeneratorFilter withPruneEmptyObjects(final boolean prune) {
+    pruneEmptyObjects = prune;
+
+    return this;
+  }
+
+  /**
+   * Turns the removal of empty strings on or off. It is on by default.
+   *
+   * @param prune whether to remove them.
+   * @return The filter itself.
+   */
+  public PruningGeneratorFilter withPruneEmptyStrings(final boolean prune) {
+    pruneEmptyStrings = prune;
+
+    return this;
+  }
+
+  /**
+   * Turns the removal of nulls on or off. It is on by default.
+   *
+   * @param prune whether to remove them.
+   * @return The filter itself.
+   */
+  public PruningGeneratorFilter withPruneNulls(final boolean prune) {
+    pruneNulls = prune;
+
+    return this;
+  }
+
+  private void writeStructure(final String name, final JsonValue value) {
+    if (value.getValueType() == JsonValue.ValueType.OBJECT) {
+      if (name == null) {
+        writeStartObject();
+      } else {
+        writeStartObject(name);
+      }
+
+      for (Map.Entry<String, JsonValue> entry : value.asJsonObject().entrySet()) {
+        write(entry.getKey(), entry.getValue());
+      }
+    } else {
+      if (name == null) {
+        writeStartArray();
+      } else {
+        writeStartArray(name);
+      }
+
+      for (JsonValue v : value.asJsonArray()) {
+        write(v);
+      }
+    }
+
+    writeEnd();
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    switch (value.getValueType()) {
+      case ARRAY:
+      case OBJECT:
+        writeStructure(null, value);
+        break;
+      case NULL:
+        writeNull();
+        break;
+      case STRING:
+        write(((JsonString) value).getString());
+        break;
+      default:
+        open();
+        super.write(value);
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    if (!pruneString(value)) {
+      open();
+      super.write(value);
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    if (key != null) {
+      return write(takeKey(), value);
+    }
+
+    open();
+    super.write(value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+      case OBJECT:
+        writeStructure(name, value);
+        break;
+      case NULL:
+        writeNull(name);
+        break;
+      case STRING:
+        write(name, ((JsonString) value).getString());
+        break;
+      default:
+        open();
+        super.write(name, value);
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final String value) {
+    if (!pruneString(value)) {
+      open();
+      super.write(name, value);
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigInteger value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final int value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final long value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final double value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final boolean value) {
+    open();
+    super.write(name, value);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    if (depth == 0) {
+      super.writeEnd();
+    } else {
+      end();
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    key = name;
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    if (key != null) {
+      return writeNull(takeKey());
+    }
+
+    if (!pruneNull()) {
+      open();
+      super.writeNull();
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    if (!pruneNull()) {
+      open();
+      super.writeNull(name);
+    }
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    start(takeKey(), false);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    start(name, false);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    start(takeKey(), true);
+
+    return this;
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    start(name, true);
+
+    return this;
+  }
+}
@@ -1,6 +1,5 @@
 package net.pincette.jf;
 
-import java.util.function.Supplier;
 import javax.json.JsonValue;
 import javax.json.stream.JsonGenerator;
 
@@ -10,15 +9,21 @@ import javax.json.stream.JsonGenerator;
  * @author Werner Donn\u00e9
  */
 public class RemoveEmptyArraysGenerator extends JsonGeneratorFilter {
-  private static final String ANONYMOUS = "anonymous";
-
   private boolean first = true;
+  private String key;
   private String name;
   private boolean pending = false;
 
-  private JsonGenerator flushPending(final Supplier<JsonGenerator> then) {
-    if (name != null) {
-      if (name.equals(ANONYMOUS)) {
+  private JsonGenerator dropPending() {
+    name = null;
+    pending = false;
+
+    return this;
+  }
+
+  private void flushPending() {
+    if (pending) {
+      if (name == null) {
         super.writeStartArray();
       } else {
         super.writeStartArray(name);
@@ -27,55 +32,71 @@ public class RemoveEmptyArraysGenerator extends JsonGeneratorFilter {
       name = null;
       pending = false;
     }
-
-    return then.get();
   }
 
-  private boolean hasRealName() {
-    return name != null && !name.equals(ANONYMOUS);
+  @Override
+  public void reset() {
+    first = true;
+    key = null;
+    dropPending();
+    super.reset();
   }
 
-  private JsonGenerator reset() {
-    name = null;
-    pending = false;
+  private JsonGenerator setPending(final String name) {
+    flushPending();
+    this.name = name;
+    pending = true;
 
     return this;
   }
 
-  private JsonGenerator resetName() {
-    name = null;
+  private String takeKey() {
+    final String result = key;
 
-    return this;
+    key = null;
+
+    return result;
   }
 
-  private JsonGenerator setPending() {
-    pending = true;
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    flushPending();
 
-    return this;
+    return key != null ? super.write(takeKey(), value) : super.write(value);
   }
 
   @Override
-  public JsonGenerator write(final JsonValue value) {
-    return !pending && hasRealName()
-        ? resetName().write(name, value)
-        : flushPending(() -> super.write(value));
+  public JsonGenerator write(final String name, final JsonValue value) {
+    flushPending();
+
+    return super.write(name, value);
   }
 
   @Override
   public JsonGenerator writeEnd() {
-    return name != null && pending ? reset() : super.writeEnd();
+    return pending ? dropPending() : super.writeEnd();
   }
 
   @Override
   public JsonGenerator writeKey(final String name) {
-    this.name = name;
+    flushPending();
+    key = name;
 
     return this;
   }
 
   @Override
   public JsonGenerator writeNull() {
-    return !pending && hasRealName() ? resetName().writeNull(name) : flushPending(super::writeNull);
+    flushPending();
+
+    return key != null ? super.writeNull(takeKey()) : super.writeNull();
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    flushPending();
+
+    return super.writeNull(name);
   }
 
   @Override
@@ -86,26 +107,33 @@ public class RemoveEmptyArraysGenerator extends JsonGeneratorFilter {
       return super.writeStartArray();
     }
 
-    if (name == null) {
-      name = ANONYMOUS;
-    }
-
-    return hasRealName() ? writeStartArray(name) : setPending();
+    return setPending(takeKey());
   }
 
   @Override
   public JsonGenerator writeStartArray(final String name) {
-    this.name = name;
+    if (first) {
+      first = false;
+
+      return super.writeStartArray(name);
+    }
 
-    return setPending();
+    return setPending(name);
   }
 
   @Override
   public JsonGenerator writeStartObject() {
     first = false;
+    flushPending();
+
+    return key != null ? super.writeStartObject(takeKey()) : super.writeStartObject();
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    first = false;
+    flushPending();
 
-    return !pending && hasRealName()
-        ? resetName().writeStartObject(name)
-        : flushPending(super::writeStartObject);
+    return super.writeStartObject(name);
   }
 }
@@ -9,15 +9,21 @@ import javax.json.stream.JsonGenerator;
  * @author Werner Donn\u00e9
  */
 public class RemoveEmptyObjectsGenerator extends JsonGeneratorFilter {
-  private static final String ANONYMOUS = "anonymous";
-
   private boolean first = true;
+  private String key;
   private String name;
   private boolean pending = false;
 
+  private JsonGenerator dropPending() {
+    name = null;
+    pending = false;
+
+    return this;
+  }
+
   private void flushPending() {
-    if (name != null) {
-      if (name.equals(ANONYMOUS)) {
+    if (pending) {
+      if (name == null) {
         super.writeStartObject();
       } else {
         super.writeStartObject(name);
@@ -28,26 +34,35 @@ public class RemoveEmptyObjectsGenerator extends JsonGeneratorFilter {
     }
   }
 
-  private boolean hasRealName() {
-    return name != null && !name.equals(ANONYMOUS);
+  @Override
+  public void reset() {
+    first = true;
+    key = null;
+    dropPending();
+    super.reset();
   }
 
-  private JsonGenerator reset() {
-    name = null;
-    pending = false;
+  private JsonGenerator setPending(final String name) {
+    flushPending();
+    this.name = name;
+    pending = true;
 
     return this;
   }
 
-  private JsonGenerator setPending() {
-    pending = true;
+  private String takeKey() {
+    final String result = key;
 
-    return this;
+    key = null;
+
+    return result;
   }
 
   @Override
-  public JsonGenerator write(JsonValue value) {
-    return !pending && hasRealName() ? write(name, value) : super.write(value);
+  public JsonGenerator write(final JsonValue value) {
+    flushPending();
+
+    return key != null ? super.write(takeKey(), value) : super.write(value);
   }
 
   @Override
@@ -59,19 +74,22 @@ public class RemoveEmptyObjectsGenerator extends JsonGeneratorFilter {
 
   @Override
   public JsonGenerator writeEnd() {
-    return name != null && pending ? reset() : super.writeEnd();
+    return pending ? dropPending() : super.writeEnd();
   }
 
   @Override
   public JsonGenerator writeKey(final String name) {
-    this.name = name;
+    flushPending();
+    key = name;
 
     return this;
   }
 
   @Override
   public JsonGenerator writeNull() {
-    return !pending && hasRealName() ? writeNull(name) : super.writeNull();
+    flushPending();
+
+    return key != null ? super.writeNull(takeKey()) : super.writeNull();
   }
 
   @Override
@@ -84,12 +102,14 @@ public class RemoveEmptyObjectsGenerator extends JsonGeneratorFilter {
   @Override
   public JsonGenerator writeStartArray() {
     first = false;
+    flushPending();
 
-    return !pending && hasRealName() ? writeStartArray(name) : super.writeStartArray();
+    return key != null ? super.writeStartArray(takeKey()) : super.writeStartArray();
   }
 
   @Override
   public JsonGenerator writeStartArray(final String name) {
+    first = false;
     flushPending();
 
     return super.writeStartArray(name);
@@ -103,18 +123,17 @@ public class RemoveEmptyObjectsGenerator extends JsonGeneratorFilter {
       return super.writeStartObject();
     }
 
-    if (name == null) {
-      name = ANONYMOUS;
-    }
-
-    return hasRealName() ? writeStartObject(name) : setPending();
+    return setPending(takeKey());
   }
 
   @Override
   public JsonGenerator writeStartObject(final String name) {
-    flushPending();
-    this.name = name;
+    if (first) {
+      first = false;
+
+      return super.writeStartObject(name);
+    }
 
-    return setPending();
+    return setPending(name);
   }
 }
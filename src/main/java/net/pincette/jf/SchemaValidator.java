@@ -0,0 +1,374 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.JsonSchema.ARRAY_TYPE;
+import static net.pincette.jf.JsonSchema.BOOLEAN_TYPE;
+import static net.pincette.jf.JsonSchema.INTEGER_TYPE;
+import static net.pincette.jf.JsonSchema.NULL_TYPE;
+import static net.pincette.jf.JsonSchema.NUMBER_TYPE;
+import static net.pincette.jf.JsonSchema.OBJECT_TYPE;
+import static net.pincette.jf.JsonSchema.STRING_TYPE;
+import static net.pincette.jf.JsonSchema.normalize;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+import javax.json.JsonNumber;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import net.pincette.jf.JsonSchema.Node;
+
+/**
+ * Validates a sequence of events against a compiled schema. The state per nesting level is kept in
+ * arrays that are reused, so nothing is allocated per event unless a number has to be compared
+ * with a <code>minimum</code>, <code>maximum</code> or <code>enum</code>. Strings read from a
+ * parser are only decoded when there is a <code>maxLength</code> or <code>enum</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+class SchemaValidator {
+  private final Node root;
+  private long[] counts = new long[16];
+  private int depth;
+  private String key;
+  private String[] keys = new String[16];
+  private Node[] nodes = new Node[16];
+  private boolean[] objects = new boolean[16];
+  private boolean[][] seen = new boolean[16][];
+
+  SchemaValidator(final JsonSchema schema) {
+    this.root = schema.root;
+  }
+
+  private static boolean isIntegral(final BigDecimal value) {
+    return value.signum() == 0 || value.stripTrailingZeros().scale() <= 0;
+  }
+
+  private static String pointerSegment(final String key) {
+    return key.replace("~", "~0").replace("/", "~1");
+  }
+
+  /**
+   * Enters the next value and returns its schema. It returns <code>null</code> when there are no
+   * constraints.
+   */
+  private Node enter() {
+    if (depth == 0) {
+      return root;
+    }
+
+    final int d = depth - 1;
+    final Node parent = nodes[d];
+
+    if (objects[d]) {
+      keys[d] = key;
+      key = null;
+
+      if (parent == null) {
+        return null;
+      }
+
+      final Integer index = parent.requiredIndex.get(keys[d]);
+
+      if (index != null) {
+        seen[d][index] = true;
+      }
+
+      return parent.child(keys[d]);
+    }
+
+    ++counts[d];
+
+    if (parent != null && parent.maxItems >= 0 && counts[d] > parent.maxItems) {
+      --depth;
+      throw violation("The array has more than " + parent.maxItems + " items");
+    }
+
+    return parent != null ? parent.items : null;
+  }
+
+  void end() {
+    final int d = depth - 1;
+    final Node node = nodes[d];
+
+    if (node != null && objects[d]) {
+      for (int i = 0; i < node.required.length; ++i) {
+        if (!seen[d][i]) {
+          --depth;
+          throw violation("The property " + node.required[i] + " is missing");
+        }
+      }
+    }
+
+    nodes[d] = null;
+    keys[d] = null;
+    --depth;
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * Tells whether the innermost structure is an object.
+   *
+   * @return Whether it is an object. At depth 0 it returns <code>false</code>.
+   */
+  boolean inObject() {
+    return depth > 0 && objects[depth - 1];
+  }
+
+  void key(final String name) {
+    key = name;
+  }
+
+  void nullValue() {
+    final Node node = enter();
+
+    type(node, NULL_TYPE);
+
+    if (node != null && node.enumeration != null && !node.enumeration.contains(JsonValue.NULL)) {
+      throw violation("The value null is not in the enumeration");
+    }
+  }
+
+  void number(final long value) {
+    final Node node = enter();
+
+    type(node, INTEGER_TYPE);
+
+    if (node != null && node.hasNumberConstraints()) {
+      range(node, BigDecimal.valueOf(value));
+    }
+  }
+
+  void number(final double value) {
+    final Node node = enter();
+
+    if (Double.isNaN(value) || Double.isInfinite(value)) {
+      throw violation("The value " + value + " is not a JSON number");
+    }
+
+    type(node, value == Math.rint(value) ? INTEGER_TYPE : NUMBER_TYPE);
+
+    if (node != null && node.hasNumberConstraints()) {
+      range(node, BigDecimal.valueOf(value));
+    }
+  }
+
+  void number(final BigDecimal value) {
+    final Node node = enter();
+
+    type(node, isIntegral(value) ? INTEGER_TYPE : NUMBER_TYPE);
+
+    if (node != null && node.hasNumberConstraints()) {
+      range(node, value);
+    }
+  }
+
+  void number(final BigInteger value) {
+    final Node node = enter();
+
+    type(node, INTEGER_TYPE);
+
+    if (node != null && node.hasNumberConstraints()) {
+      range(node, new BigDecimal(value));
+    }
+  }
+
+  /**
+   * Validates the current number of <code>parser</code>. The number is only decoded when the
+   * schema needs it.
+   *
+   * @param parser the given parser.
+   */
+  void number(final JsonParser parser) {
+    final Node node = enter();
+
+    if (node != null) {
+      final boolean integral =
+          parser.isIntegralNumber()
+              || ((node.types & NUMBER_TYPE) == 0 && isIntegral(parser.getBigDecimal()));
+
+      type(node, integral ? INTEGER_TYPE : NUMBER_TYPE);
+
+      if (node.hasNumberConstraints()) {
+        range(node, parser.getBigDecimal());
+      }
+    }
+  }
+
+  private String pointer() {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < depth; ++i) {
+      builder
+          .append('/')
+          .append(objects[i] ? pointerSegment(keys[i]) : String.valueOf(counts[i] - 1));
+    }
+
+    return builder.toString();
+  }
+
+  private void push(final Node node, final boolean object) {
+    if (depth == nodes.length) {
+      counts = Arrays.copyOf(counts, depth * 2);
+      keys = Arrays.copyOf(keys, depth * 2);
+      nodes = Arrays.copyOf(nodes, depth * 2);
+      objects = Arrays.copyOf(objects, depth * 2);
+      seen = Arrays.copyOf(seen, depth * 2);
+    }
+
+    counts[depth] = 0;
+    nodes[depth] = node;
+    objects[depth] = object;
+
+    if (node != null && object && node.required.length > 0) {
+      if (seen[depth] == null || seen[depth].length < node.required.length) {
+        seen[depth] = new boolean[node.required.length];
+      } else {
+        Arrays.fill(seen[depth], 0, node.required.length, false);
+      }
+    }
+
+    ++depth;
+  }
+
+  private void range(final Node node, final BigDecimal value) {
+    if (node.minimum != null && value.compareTo(node.minimum) < 0) {
+      throw violation("The value " + value + " is less than " + node.minimum);
+    }
+
+    if (node.maximum != null && value.compareTo(node.maximum) > 0) {
+      throw violation("The value " + value + " is greater than " + node.maximum);
+    }
+
+    if (node.enumeration != null && !node.enumeration.contains(normalize(value))) {
+      throw violation("The value " + value + " is not in the enumeration");
+    }
+  }
+
+  void reset() {
+    Arrays.fill(keys, 0, depth, null);
+    Arrays.fill(nodes, 0, depth, null);
+    depth = 0;
+    key = null;
+  }
+
+  void startArray() {
+    final Node node = enter();
+
+    type(node, ARRAY_TYPE);
+    push(node, false);
+  }
+
+  void startObject() {
+    final Node node = enter();
+
+    type(node, OBJECT_TYPE);
+    push(node, true);
+  }
+
+  void string(final String value) {
+    final Node node = enter();
+
+    type(node, STRING_TYPE);
+
+    if (node != null) {
+      string(node, value);
+    }
+  }
+
+  /**
+   * Validates the current string of <code>parser</code>. The string is only decoded when the schema
+   * needs it.
+   *
+   * @param parser the given parser.
+   */
+  void string(final JsonParser parser) {
+    final Node node = enter();
+
+    type(node, STRING_TYPE);
+
+    if (node != null && (node.maxLength >= 0 || node.enumeration != null)) {
+      string(node, parser.getString());
+    }
+  }
+
+  private void string(final Node node, final String value) {
+    if (node.maxLength >= 0 && value.codePointCount(0, value.length()) > node.maxLength) {
+      throw violation("The string is longer than " + node.maxLength + " characters");
+    }
+
+    if (node.enumeration != null && !node.enumeration.contains(value)) {
+      throw violation("The value " + value + " is not in the enumeration");
+    }
+  }
+
+  private void type(final Node node, final int type) {
+    if (node != null) {
+      if ((node.types & type) == 0) {
+        throw violation("The value has the wrong type");
+      }
+
+      if (node.enumeration != null && (type & (ARRAY_TYPE | OBJECT_TYPE)) != 0) {
+        throw violation("The value is not in the enumeration");
+      }
+    }
+  }
+
+  void value(final boolean value) {
+    final Node node = enter();
+
+    type(node, BOOLEAN_TYPE);
+
+    if (node != null && node.enumeration != null && !node.enumeration.contains(value)) {
+      throw violation("The value " + value + " is not in the enumeration");
+    }
+  }
+
+  /**
+   * Validates a complete value.
+   *
+   * @param value the given value.
+   */
+  void value(final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+        startArray();
+        value.asJsonArray().forEach(this::value);
+        end();
+        break;
+      case OBJECT:
+        startObject();
+
+        for (Map.Entry<String, JsonValue> entry : value.asJsonObject().entrySet()) {
+          key(entry.getKey());
+          value(entry.getValue());
+        }
+
+        end();
+        break;
+      case FALSE:
+        value(false);
+        break;
+      case NULL:
+        nullValue();
+        break;
+      case NUMBER:
+        number(((JsonNumber) value).bigDecimalValue());
+        break;
+      case STRING:
+        string(((JsonString) value).getString());
+        break;
+      default:
+        value(true);
+        break;
+    }
+  }
+
+  private SchemaViolationException violation(final String message) {
+    return new SchemaViolationException(message, pointer());
+  }
+}
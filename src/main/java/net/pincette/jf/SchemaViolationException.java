@@ -0,0 +1,28 @@
+package net.pincette.jf;
+
+import javax.json.JsonException;
+
+/**
+ * Is thrown at the first value that doesn't comply with a <code>JsonSchema</code>.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class SchemaViolationException extends JsonException {
+  private static final long serialVersionUID = 1L;
+
+  private final String pointer;
+
+  public SchemaViolationException(final String message, final String pointer) {
+    super(message + " at " + ("".equals(pointer) ? "the top" : pointer));
+    this.pointer = pointer;
+  }
+
+  /**
+   * Returns the location of the violation.
+   *
+   * @return The JSON Pointer of the value.
+   */
+  public String getPointer() {
+    return pointer;
+  }
+}
@@ -0,0 +1,37 @@
+package net.pincette.jf;
+
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import java.math.BigInteger;
+import javax.json.stream.JsonParser;
+
+/**
+ * A parser that knows the type of the current number. Integers can then be passed on as an <code>
+ * int</code>, a <code>long</code> or a <code>BigInteger</code> instead of always going through
+ * <code>BigDecimal</code>. Other numbers only skip it when they are a <code>double</code> already.
+ *
+ * @author Werner Donn\u00e9
+ */
+interface TypedNumberParser extends JsonParser {
+  BigInteger getBigInteger();
+
+  double getDouble();
+
+  /**
+   * Returns the number type of the current number. For integers this is the smallest type that can
+   * hold the value.
+   *
+   * @return The number type or <code>null</code> if the current event is not a number.
+   */
+  NumberType getNumberType();
+
+  /**
+   * Returns <code>true</code> if the current number was written as a <code>double</code>. A number
+   * that was parsed from text is never one, because it has a scale that a <code>double</code>
+   * doesn't keep.
+   *
+   * @return Whether the number is a <code>double</code>.
+   */
+  default boolean isDouble() {
+    return false;
+  }
+}
@@ -2,26 +2,49 @@ package net.pincette.jf;
 
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
-import static javax.json.Json.createValue;
 import static javax.json.JsonValue.FALSE;
 import static javax.json.JsonValue.NULL;
 import static javax.json.JsonValue.TRUE;
+import static javax.json.JsonValue.ValueType.OBJECT;
 import static javax.json.stream.JsonParser.Event.END_ARRAY;
 import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
 import static javax.json.stream.JsonParser.Event.START_ARRAY;
 import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static net.pincette.jf.ArraySpliterator.chunkSize;
+import static net.pincette.jf.Provider.createObjectBuilder;
+import static net.pincette.jf.Provider.createValue;
+import static net.pincette.util.Util.tryToDoRethrow;
+import static net.pincette.util.Util.tryToGetRethrow;
 
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
 import java.util.ArrayDeque;
 import java.util.Deque;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.json.JsonArray;
+import javax.json.JsonBuilderFactory;
+import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonStructure;
 import javax.json.JsonValue;
+import javax.json.JsonValue.ValueType;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonParser;
 import javax.json.stream.JsonParser.Event;
@@ -137,6 +160,41 @@ public class Util {
     throw new IllegalStateException("Expecting end of object or array");
   }
 
+  /**
+   * Estimates the size of the serialized form of <code>value</code> without serializing it. Strings
+   * are counted in characters and non-integral numbers as 16 characters.
+   *
+   * @param value the given value.
+   * @return The estimated number of bytes.
+   */
+  public static long estimateSize(final JsonValue value) {
+    switch (value.getValueType()) {
+      case ARRAY:
+        return value.asJsonArray().stream().mapToLong(v -> estimateSize(v) + 1).sum() + 2;
+      case FALSE:
+        return 5;
+      case NUMBER:
+        return estimateSize((JsonNumber) value);
+      case OBJECT:
+        return value.asJsonObject().entrySet().stream()
+                .mapToLong(e -> e.getKey().length() + estimateSize(e.getValue()) + 4)
+                .sum()
+            + 2;
+      case STRING:
+        return ((JsonString) value).getString().length() + 2;
+      default:
+        return 4;
+    }
+  }
+
+  private static long estimateSize(final JsonNumber number) {
+    return number.isIntegral() ? estimateSize(number.longValue()) : 16;
+  }
+
+  static long estimateSize(final long l) {
+    return l == 0 ? 1 : (long) Math.log10(Math.abs((double) l)) + (l < 0 ? 2 : 1);
+  }
+
   /**
    * Reads one array from <code>parser</code>, which must be in the state <code>START_ARRAY</code>.
    *
@@ -144,9 +202,19 @@ public class Util {
    * @return The read array.
    */
   public static JsonArray getArray(final JsonParser parser) {
-    return Optional.of(new JsonBuilderGenerator())
-        .map(generator -> addArray(parser, generator))
-        .map(generator -> ((JsonBuilderGenerator) generator).build())
+    return getArray(parser, null);
+  }
+
+  /**
+   * Reads one array from <code>parser</code>, which must be in the state <code>START_ARRAY</code>.
+   *
+   * @param parser the given parser.
+   * @param factory the factory for the builders. When it is <code>null</code> the default JSON
+   *     provider is used.
+   * @return The read array.
+   */
+  public static JsonArray getArray(final JsonParser parser, final JsonBuilderFactory factory) {
+    return Optional.of(getStructure(parser, factory, Util::addArray))
         .filter(Json::isArray)
         .map(JsonValue::asJsonArray)
         .orElseThrow(IllegalStateException::new);
@@ -160,14 +228,73 @@ public class Util {
    * @return The read object.
    */
   public static JsonObject getObject(final JsonParser parser) {
-    return Optional.of(new JsonBuilderGenerator())
-        .map(generator -> addObject(parser, generator))
-        .map(generator -> ((JsonBuilderGenerator) generator).build())
+    return getObject(parser, null);
+  }
+
+  /**
+   * Reads one object from <code>parser</code>, which must be in the state <code>START_OBJECT</code>
+   * .
+   *
+   * @param parser the given parser.
+   * @param factory the factory for the builders. When it is <code>null</code> the default JSON
+   *     provider is used.
+   * @return The read object.
+   */
+  public static JsonObject getObject(final JsonParser parser, final JsonBuilderFactory factory) {
+    return Optional.of(getStructure(parser, factory, Util::addObject))
         .filter(Json::isObject)
         .map(JsonValue::asJsonObject)
         .orElseThrow(IllegalStateException::new);
   }
 
+  private static JsonStructure getStructure(
+      final JsonParser parser,
+      final JsonBuilderFactory factory,
+      final BiFunction<JsonParser, JsonGenerator, JsonGenerator> add) {
+    final JsonBuilderGenerator generator = new JsonBuilderGenerator(factory);
+
+    if (!Jfr.isParseEnabled()) {
+      add.apply(parser, generator);
+
+      return generator.build();
+    }
+
+    final ParseEvent event = new ParseEvent();
+
+    event.begin();
+    add.apply(parser, generator);
+
+    final JsonStructure result = generator.build();
+
+    event.end();
+
+    if (event.shouldCommit()) {
+      event.depth = generator.getMaxDepth();
+      event.size = size(result);
+      event.type = result.getValueType().name();
+      event.commit();
+    }
+
+    return result;
+  }
+
+  private static JsonValue getNumber(final JsonParser parser) {
+    final TypedNumberParser typed = typedNumberParser(parser);
+
+    if (typed != null && typed.isIntegralNumber()) {
+      switch (typed.getNumberType()) {
+        case INT:
+          return createValue(typed.getInt());
+        case LONG:
+          return createValue(typed.getLong());
+        default:
+          return createValue(typed.getBigInteger());
+      }
+    }
+
+    return createValue(parser.getBigDecimal());
+  }
+
   public static JsonValue getValue(final Event e, final JsonParser parser) {
     switch (e) {
       case VALUE_NULL:
@@ -183,12 +310,137 @@ public class Util {
       case VALUE_FALSE:
         return FALSE;
       case VALUE_NUMBER:
-        return createValue(parser.getBigDecimal());
+        return getNumber(parser);
       default:
         return null;
     }
   }
 
+  /**
+   * Produces a stream of the root values in <code>parser</code>, such as the lines of a JSON Lines
+   * document. The same parser is used for all values and only one value is kept in memory at the
+   * time.
+   *
+   * @param parser the given parser.
+   * @return The stream of values.
+   */
+  public static Stream<JsonValue> jsonLines(final JsonParser parser) {
+    return net.pincette.util.StreamUtil.stream(
+        new Iterator<JsonValue>() {
+          @Override
+          public boolean hasNext() {
+            return parser.hasNext();
+          }
+
+          @Override
+          public JsonValue next() {
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            return getValue(parser.next(), parser);
+          }
+        });
+  }
+
+  /**
+   * Applies a JSON Merge Patch (RFC 7396) to the value that is read from <code>parser</code> and
+   * writes the result to <code>generator</code>. Only the patch is kept in memory. The parts of the
+   * target that are not touched by it are copied, while the values it replaces are skipped without
+   * reading them into memory. Members that are added by the patch are written at the end of their
+   * object.
+   *
+   * @param parser the parser with the target. The value starts with the next event.
+   * @param patch the merge patch.
+   * @param generator the given generator.
+   * @return The given generator.
+   */
+  public static JsonGenerator mergePatch(
+      final JsonParser parser, final JsonObject patch, final JsonGenerator generator) {
+    if (parser.hasNext()) {
+      final Event event = parser.next();
+
+      if (event == START_OBJECT) {
+        generator.writeStartObject();
+        mergeObject(parser, patch, generator);
+      } else {
+        skipValue(event, parser);
+        generator.write(withoutNulls(patch));
+      }
+    }
+
+    return generator;
+  }
+
+  private static void mergeObject(
+      final JsonParser parser, final JsonObject patch, final JsonGenerator generator) {
+    final Set<String> patched = new HashSet<>();
+
+    for (Event e = parser.next(); e == KEY_NAME; e = parser.next()) {
+      final String key = parser.getString();
+      final Event event = parser.next();
+      final JsonValue value = patch.get(key);
+
+      if (value == null) {
+        generator.writeKey(key);
+        writeValue(event, parser, generator);
+      } else {
+        patched.add(key);
+
+        if (value.getValueType() == OBJECT && event == START_OBJECT) {
+          generator.writeStartObject(key);
+          mergeObject(parser, value.asJsonObject(), generator);
+        } else {
+          skipValue(event, parser);
+
+          if (value.getValueType() != ValueType.NULL) {
+            generator.write(key, withoutNulls(value));
+          }
+        }
+      }
+    }
+
+    patch.entrySet().stream()
+        .filter(e -> !patched.contains(e.getKey()))
+        .filter(e -> e.getValue().getValueType() != ValueType.NULL)
+        .forEach(e -> generator.write(e.getKey(), withoutNulls(e.getValue())));
+    generator.writeEnd();
+  }
+
+  /**
+   * Produces a parallel stream from a document in a byte array. If the document is an array the
+   * stream consists of its elements. Otherwise it consists of the document. A fast pre-scan cuts
+   * the array into chunks of elements, which are parsed in parallel, each with its own parser.
+   *
+   * @param bytes the given document.
+   * @return The stream of values.
+   */
+  public static Stream<JsonValue> parallelStream(final byte[] bytes) {
+    return StreamSupport.stream(ArraySpliterator.of(bytes, chunkSize(bytes.length)), true);
+  }
+
+  /**
+   * Produces a parallel stream from a document in a file in the same way as <code>
+   * parallelStream(byte[])</code>. The file is read with positional reads, so all threads can share
+   * it. The stream should be closed in order to close the file.
+   *
+   * @param path the path of the file.
+   * @return The stream of values.
+   */
+  public static Stream<JsonValue> parallelStream(final Path path) {
+    final FileChannel channel = ArraySpliterator.open(path);
+
+    try {
+      return StreamSupport.stream(
+              ArraySpliterator.of(channel, chunkSize(tryToGetRethrow(channel::size).orElse(0L))),
+              true)
+          .onClose(() -> tryToDoRethrow(channel::close));
+    } catch (RuntimeException e) {
+      tryToDoRethrow(channel::close);
+      throw e;
+    }
+  }
+
   /**
    * Produces a stream from the <code>parser</code>. If the parser offers an object then the stream
    * consists of one element. If it offers an array the stream consists of the elements in the
@@ -204,6 +456,63 @@ public class Util {
     return !parser.hasNext() ? empty() : contents.apply(parser.next());
   }
 
+  private static void skipValue(final Event event, final JsonParser parser) {
+    if (event == START_ARRAY) {
+      parser.skipArray();
+    } else if (event == START_OBJECT) {
+      parser.skipObject();
+    }
+  }
+
+  static int size(final JsonStructure structure) {
+    return structure instanceof JsonObject
+        ? ((JsonObject) structure).size()
+        : ((JsonArray) structure).size();
+  }
+
+  /**
+   * Runs <code>supplier</code> on <code>executor</code>. When the returned future is cancelled
+   * before the result is there, the result is given to <code>discard</code>. This way a result that
+   * holds resources is never lost.
+   *
+   * @param supplier the function that produces the result.
+   * @param executor the given executor.
+   * @param discard the function that releases a result that is no longer wanted.
+   * @param <T> the type of the result.
+   * @return The future result.
+   */
+  static <T> CompletableFuture<T> supplyAsync(
+      final Supplier<T> supplier, final Executor executor, final Consumer<T> discard) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+
+    executor.execute(
+        () -> {
+          if (!future.isDone()) {
+            try {
+              final T result = supplier.get();
+
+              if (!future.complete(result)) {
+                discard.accept(result);
+              }
+            } catch (Throwable e) {
+              future.completeExceptionally(e);
+            }
+          }
+        });
+
+    return future;
+  }
+
+  private static TypedNumberParser typedNumberParser(final JsonParser parser) {
+    JsonParser p = parser;
+
+    while (p instanceof JsonParserWrapper) {
+      p = ((JsonParserWrapper) p).getDelegate();
+    }
+
+    return p instanceof TypedNumberParser ? (TypedNumberParser) p : null;
+  }
+
   /**
    * Returns a stream of values in an array. The state must be such that a value will start after
    * it.
@@ -236,8 +545,24 @@ public class Util {
         });
   }
 
+  private static JsonValue withoutNulls(final JsonValue value) {
+    if (value.getValueType() != OBJECT) {
+      return value;
+    }
+
+    final JsonObjectBuilder builder = createObjectBuilder();
+
+    value.asJsonObject().entrySet().stream()
+        .filter(e -> e.getValue().getValueType() != ValueType.NULL)
+        .forEach(e -> builder.add(e.getKey(), withoutNulls(e.getValue())));
+
+    return builder.build();
+  }
+
   /**
-   * Write one event from <code>parser</code> to <code>generator</code>.
+   * Write one event from <code>parser</code> to <code>generator</code>. When a <code>JacksonParser
+   * </code> is copied into a <code>JacksonGenerator</code> the values are copied without decoding
+   * them first.
    *
    * @param e the given event.
    * @param parser the given parser.
@@ -246,6 +571,12 @@ public class Util {
    */
   public static JsonGenerator writeEvent(
       final Event e, final JsonParser parser, final JsonGenerator generator) {
+    if (parser instanceof JacksonParser
+        && generator instanceof JacksonGenerator
+        && (e == KEY_NAME || e == VALUE_NUMBER || e == VALUE_STRING)) {
+      return ((JacksonGenerator) generator).copyEvent(e, (JacksonParser) parser);
+    }
+
     switch (e) {
       case END_ARRAY:
       case END_OBJECT:
@@ -267,7 +598,7 @@ public class Util {
         generator.writeNull();
         break;
       case VALUE_NUMBER:
-        generator.write(parser.getBigDecimal());
+        writeNumber(parser, generator);
         break;
       case VALUE_STRING:
         generator.write(parser.getString());
@@ -279,4 +610,49 @@ public class Util {
 
     return generator;
   }
+
+  /**
+   * Writes the current number of <code>parser</code> to <code>generator</code>. With a <code>
+   * JacksonParser</code> or the parser of a <code>JsonPipe</code> integers are written as an <code>
+   * int</code>, a <code>long</code> or a <code>BigInteger</code>, depending on their size, and a
+   * <code>double</code> that was written to a pipe stays a <code>double</code>. In all other cases a
+   * <code>BigDecimal</code> is written, which keeps the scale of the number.
+   *
+   * @param parser the given parser.
+   * @param generator the given generator.
+   * @return The given generator.
+   */
+  public static JsonGenerator writeNumber(final JsonParser parser, final JsonGenerator generator) {
+    final TypedNumberParser typed = typedNumberParser(parser);
+
+    if (typed != null) {
+      if (typed.isIntegralNumber()) {
+        switch (typed.getNumberType()) {
+          case INT:
+            return generator.write(typed.getInt());
+          case LONG:
+            return generator.write(typed.getLong());
+          default:
+            return generator.write(typed.getBigInteger());
+        }
+      }
+
+      if (typed.isDouble()) {
+        return generator.write(typed.getDouble());
+      }
+    }
+
+    return generator.write(parser.getBigDecimal());
+  }
+
+  private static void writeValue(
+      final Event event, final JsonParser parser, final JsonGenerator generator) {
+    if (event == START_ARRAY) {
+      addArray(parser, generator);
+    } else if (event == START_OBJECT) {
+      addObject(parser, generator);
+    } else {
+      writeEvent(event, parser, generator);
+    }
+  }
 }
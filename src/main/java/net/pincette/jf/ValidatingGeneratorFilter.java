@@ -0,0 +1,207 @@
+package net.pincette.jf;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+
+/**
+ * Validates the stream against a <code>JsonSchema</code> while it passes through. Nothing is
+ * accumulated. The first value that doesn't comply causes a <code>SchemaViolationException
+ * </code>, before it is written to the next filter element. When the filter is used for several
+ * top-level values, such as JSON Lines, each of them is validated against the schema.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ValidatingGeneratorFilter extends JsonGeneratorFilter {
+  private final SchemaValidator validator;
+
+  public ValidatingGeneratorFilter(final JsonSchema schema) {
+    validator = new SchemaValidator(schema);
+  }
+
+  @Override
+  public void reset() {
+    validator.reset();
+    super.reset();
+  }
+
+  @Override
+  public JsonGenerator write(final JsonValue value) {
+    validator.value(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final String value) {
+    validator.string(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final BigDecimal value) {
+    validator.number(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final BigInteger value) {
+    validator.number(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final int value) {
+    validator.number((long) value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final long value) {
+    validator.number(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final double value) {
+    validator.number(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final boolean value) {
+    validator.value(value);
+
+    return super.write(value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final JsonValue value) {
+    validator.key(name);
+    validator.value(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final String value) {
+    validator.key(name);
+    validator.string(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigDecimal value) {
+    validator.key(name);
+    validator.number(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final BigInteger value) {
+    validator.key(name);
+    validator.number(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final int value) {
+    validator.key(name);
+    validator.number((long) value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final long value) {
+    validator.key(name);
+    validator.number(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final double value) {
+    validator.key(name);
+    validator.number(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator write(final String name, final boolean value) {
+    validator.key(name);
+    validator.value(value);
+
+    return super.write(name, value);
+  }
+
+  @Override
+  public JsonGenerator writeEnd() {
+    validator.end();
+
+    return super.writeEnd();
+  }
+
+  @Override
+  public JsonGenerator writeKey(final String name) {
+    validator.key(name);
+
+    return super.writeKey(name);
+  }
+
+  @Override
+  public JsonGenerator writeNull() {
+    validator.nullValue();
+
+    return super.writeNull();
+  }
+
+  @Override
+  public JsonGenerator writeNull(final String name) {
+    validator.key(name);
+    validator.nullValue();
+
+    return super.writeNull(name);
+  }
+
+  @Override
+  public JsonGenerator writeStartArray() {
+    validator.startArray();
+
+    return super.writeStartArray();
+  }
+
+  @Override
+  public JsonGenerator writeStartArray(final String name) {
+    validator.key(name);
+    validator.startArray();
+
+    return super.writeStartArray(name);
+  }
+
+  @Override
+  public JsonGenerator writeStartObject() {
+    validator.startObject();
+
+    return super.writeStartObject();
+  }
+
+  @Override
+  public JsonGenerator writeStartObject(final String name) {
+    validator.key(name);
+    validator.startObject();
+
+    return super.writeStartObject(name);
+  }
+}
@@ -0,0 +1,104 @@
+package net.pincette.jf;
+
+import javax.json.stream.JsonParser;
+
+/**
+ * Validates the events of a parser against a <code>JsonSchema</code> as they are read. The first
+ * value that doesn't comply causes a <code>SchemaViolationException</code>. Skipped arrays and
+ * objects are still read and validated. As with other parsers, <code>skipArray</code> and <code>
+ * skipObject</code> do nothing when the innermost structure is of the other kind. When a
+ * non-blocking delegate runs out of input during a skip, the skip continues after the next chunk
+ * has been fed. When the parser produces several top-level values, such as JSON Lines, each of them
+ * is validated against the schema.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ValidatingParser extends JsonParserWrapper {
+  private int skipping;
+  private final SchemaValidator validator;
+
+  public ValidatingParser(final JsonParser delegate, final JsonSchema schema) {
+    super(delegate);
+    validator = new SchemaValidator(schema);
+  }
+
+  @Override
+  public boolean hasNext() {
+    skipRest();
+
+    return skipping == 0 && super.hasNext();
+  }
+
+  @Override
+  public Event next() {
+    skipRest();
+
+    return validate(super.next());
+  }
+
+  private void skip(final boolean object) {
+    final int depth = validator.getDepth();
+
+    if (depth > 0 && validator.inObject() == object) {
+      skipping = depth;
+      skipRest();
+    }
+  }
+
+  @Override
+  public void skipArray() {
+    skip(false);
+  }
+
+  @Override
+  public void skipObject() {
+    skip(true);
+  }
+
+  private void skipRest() {
+    while (skipping > 0 && super.hasNext()) {
+      validate(super.next());
+
+      if (validator.getDepth() < skipping) {
+        skipping = 0;
+      }
+    }
+  }
+
+  private Event validate(final Event event) {
+    switch (event) {
+      case END_ARRAY:
+      case END_OBJECT:
+        validator.end();
+        break;
+      case KEY_NAME:
+        validator.key(getString());
+        break;
+      case START_ARRAY:
+        validator.startArray();
+        break;
+      case START_OBJECT:
+        validator.startObject();
+        break;
+      case VALUE_FALSE:
+        validator.value(false);
+        break;
+      case VALUE_NULL:
+        validator.nullValue();
+        break;
+      case VALUE_NUMBER:
+        validator.number(this);
+        break;
+      case VALUE_STRING:
+        validator.string(this);
+        break;
+      case VALUE_TRUE:
+        validator.value(true);
+        break;
+      default:
+        break;
+    }
+
+    return event;
+  }
+}
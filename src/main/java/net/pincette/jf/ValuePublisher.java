@@ -0,0 +1,149 @@
+package net.pincette.jf;
+
+import static net.pincette.jf.Util.stream;
+
+import java.util.Iterator;
+import java.util.concurrent.Flow.Publisher;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+
+/**
+ * Publishes the values of <code>parser</code> in the same way as <code>Util.stream</code>. If the
+ * parser offers an object then one value is published. If it offers an array its elements are
+ * published. Only as many elements are parsed as the subscriber has requested. They are emitted on
+ * the thread that calls <code>request</code>.
+ *
+ * <p>The publisher owns the parser. It is closed when the values are exhausted, when an error
+ * occurs or when the subscription is cancelled. Only one subscriber is supported.
+ *
+ * @author Werner Donn\u00e9
+ */
+public class ValuePublisher implements Publisher<JsonValue> {
+  private final JsonParser parser;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public ValuePublisher(final JsonParser parser) {
+    this.parser = parser;
+  }
+
+  public void subscribe(final Subscriber<? super JsonValue> subscriber) {
+    if (subscribed.getAndSet(true)) {
+      subscriber.onSubscribe(
+          new Subscription() {
+            public void cancel() {
+              // Nothing to do.
+            }
+
+            public void request(final long n) {
+              // Nothing to do.
+            }
+          });
+      subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+    } else {
+      subscriber.onSubscribe(new ParserSubscription(subscriber));
+    }
+  }
+
+  private class ParserSubscription implements Subscription {
+    private final AtomicLong requested = new AtomicLong();
+    private final Subscriber<? super JsonValue> subscriber;
+    private final AtomicInteger work = new AtomicInteger();
+    private volatile boolean cancelled;
+    private boolean done;
+    private Throwable error;
+    private Iterator<JsonValue> values;
+
+    private ParserSubscription(final Subscriber<? super JsonValue> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    private void complete(final Throwable t) {
+      done = true;
+      parser.close();
+
+      if (t != null) {
+        subscriber.onError(t);
+      } else {
+        subscriber.onComplete();
+      }
+    }
+
+    private void drain() {
+      if (work.getAndIncrement() != 0) {
+        return;
+      }
+
+      int missed = 1;
+
+      do {
+        final long r = requested.get();
+        long emitted = 0;
+
+        while (!done && !cancelled && (emitted != r || error != null)) {
+          if (error != null) {
+            complete(error);
+          } else {
+            emitted += emit();
+          }
+        }
+
+        if (emitted > 0 && r != Long.MAX_VALUE) {
+          requested.addAndGet(-emitted);
+        }
+
+        if (cancelled && !done) {
+          done = true;
+          parser.close();
+        }
+
+        missed = work.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private long emit() {
+      final JsonValue value;
+
+      try {
+        if (values == null) {
+          values = stream(parser).iterator();
+        }
+
+        value = values.hasNext() ? values.next() : null;
+      } catch (RuntimeException e) {
+        complete(e);
+
+        return 0;
+      }
+
+      if (value == null) {
+        complete(null);
+
+        return 0;
+      }
+
+      subscriber.onNext(value);
+
+      return 1;
+    }
+
+    public void request(final long n) {
+      if (n <= 0) {
+        error = new IllegalArgumentException("The request should be positive (rule 3.9)");
+      } else {
+        requested.accumulateAndGet(n, (r, a) -> r + a < 0 ? Long.MAX_VALUE : r + a);
+      }
+
+      drain();
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class AccumulatingGeneratorFilterTest {
+  private static final String DOCUMENT = "[{\"a\":1,\"b\":[true,null]},[2,\"x\"],{}]";
+
+  private static JsonValue stream(final String json, final long budget) throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(
+        new JacksonParser(new JsonFactory().createParser(json)),
+        new ArrayStreamingGeneratorFilter(budget).thenApply(builder));
+
+    return builder.build();
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void spilledElements() throws IOException {
+    final String large = "[{\"a\":\"" + "x".repeat(1000) + "\"},1,{\"b\":[]}]";
+
+    assertEquals(value(DOCUMENT), stream(DOCUMENT, 4));
+    assertEquals(value(large), stream(large, 100));
+  }
+
+  @Test
+  void streamedArray() throws IOException {
+    assertEquals(value(DOCUMENT), stream(DOCUMENT, -1));
+    assertEquals(value("[]"), stream("[]", -1));
+  }
+}
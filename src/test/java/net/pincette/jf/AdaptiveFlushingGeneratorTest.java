@@ -0,0 +1,95 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class AdaptiveFlushingGeneratorTest {
+  private static void write(final AdaptiveFlushingGenerator generator, final int values) {
+    for (int i = 0; i < values; ++i) {
+      generator.write(i);
+    }
+  }
+
+  @Test
+  void elementsInArray() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator = new AdaptiveFlushingGenerator().withMaxElements(2);
+
+    generator.thenApply(counter).writeStartArray();
+    generator.write(1).write(2);
+    assertEquals(1, counter.flushes);
+    generator.write(3).writeEnd();
+    assertEquals(2, counter.flushes);
+  }
+
+  @Test
+  void maxBytes() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator =
+        new AdaptiveFlushingGenerator().withFlushRootValues(false).withMaxBytes(100);
+
+    generator.thenApply(counter);
+    generator.write("x".repeat(98));
+    assertEquals(1, counter.flushes);
+    generator.write("x");
+    assertEquals(1, counter.flushes);
+  }
+
+  @Test
+  void requested() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator = new AdaptiveFlushingGenerator();
+
+    generator.thenApply(counter).writeStartArray().writeStartObject();
+    generator.requestFlush();
+    assertEquals(0, counter.flushes);
+    generator.writeEnd();
+    assertEquals(1, counter.flushes);
+    generator.requestFlush();
+    assertEquals(2, counter.flushes);
+  }
+
+  @Test
+  void rootValues() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator = new AdaptiveFlushingGenerator();
+
+    generator.thenApply(counter);
+    write(generator, 5);
+    assertEquals(5, counter.flushes);
+  }
+
+  @Test
+  void rootValuesCounted() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator =
+        new AdaptiveFlushingGenerator().withFlushRootValues(false).withMaxElements(2);
+
+    generator.thenApply(counter);
+    write(generator, 5);
+    assertEquals(2, counter.flushes);
+    generator.flush();
+    assertEquals(3, counter.flushes);
+  }
+
+  @Test
+  void rootValuesNotFlushed() {
+    final Counter counter = new Counter();
+    final AdaptiveFlushingGenerator generator =
+        new AdaptiveFlushingGenerator().withFlushRootValues(false);
+
+    generator.thenApply(counter);
+    write(generator, 100);
+    assertEquals(0, counter.flushes);
+  }
+
+  private static class Counter extends JsonGeneratorFilter {
+    private int flushes;
+
+    @Override
+    public void flush() {
+      ++flushes;
+    }
+  }
+}
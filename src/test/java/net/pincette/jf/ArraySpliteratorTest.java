@@ -0,0 +1,126 @@
+package net.pincette.jf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class ArraySpliteratorTest {
+  private static final String TRICKY =
+      " \n[\"a,b\",\"c\\\"],[\\\\\",{\"d\":[1,{\"e\":\"}\"}],\"f\":\"\\\\\"},[[],[2,3]],null,"
+          + "\"\",4.5,{}]\t";
+
+  private static String large() {
+    final StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < 30000; ++i) {
+      builder
+          .append(i > 0 ? "," : "")
+          .append("{\"i\":")
+          .append(i)
+          .append(",\"s\":\"x\\\"],{,y\\\\\",\"l\":[")
+          .append(i)
+          .append("]}");
+    }
+
+    return builder.append("]").toString();
+  }
+
+  private static List<JsonValue> parallel(final String json, final long chunkSize) {
+    return StreamSupport.stream(ArraySpliterator.of(json.getBytes(UTF_8), chunkSize), true)
+        .collect(toList());
+  }
+
+  private static List<JsonValue> sequential(final String json, final long chunkSize) {
+    return StreamSupport.stream(ArraySpliterator.of(json.getBytes(UTF_8), chunkSize), false)
+        .collect(toList());
+  }
+
+  private static List<JsonValue> values(final String json) {
+    final JsonValue value = Json.createReader(new StringReader(json)).readValue();
+
+    return value.getValueType() == JsonValue.ValueType.ARRAY
+        ? new ArrayList<>(value.asJsonArray())
+        : List.of(value);
+  }
+
+  @Test
+  void cutsAtEveryElement() {
+    assertEquals(values(TRICKY), sequential(TRICKY, 1));
+    assertEquals(values(TRICKY), parallel(TRICKY, 1));
+  }
+
+  @Test
+  void cutsAcrossScanBuffers() {
+    final String json = large();
+
+    assertEquals(values(json), sequential(json, 1000));
+    assertEquals(values(json), parallel(json, 1000));
+  }
+
+  @Test
+  void emptyArray() {
+    assertEquals(List.of(), sequential(" [ ] ", 1));
+  }
+
+  @Test
+  void file() throws IOException {
+    final String json = large();
+    final Path path = Files.createTempFile("array", ".json");
+
+    try {
+      Files.write(path, json.getBytes(UTF_8));
+
+      try (Stream<JsonValue> stream = Util.parallelStream(path)) {
+        assertEquals(values(json), stream.collect(toList()));
+      }
+
+      try (FileChannel channel = ArraySpliterator.open(path)) {
+        assertEquals(
+            values(json),
+            StreamSupport.stream(ArraySpliterator.of(channel, 1000), true).collect(toList()));
+      }
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  void incompleteArray() {
+    assertThrows(IllegalStateException.class, () -> sequential("[1,[2,3]", 1));
+  }
+
+  @Test
+  void notAnArray() {
+    assertEquals(values("{\"a\":[1,2]}"), sequential("{\"a\":[1,2]}", 1));
+  }
+
+  @Test
+  void splits() {
+    final Spliterator<JsonValue> second = ArraySpliterator.of("[1,2,3,4,5]".getBytes(UTF_8), 1);
+    final Spliterator<JsonValue> first = second.trySplit();
+    final List<JsonValue> values = new ArrayList<>();
+
+    assertEquals(2, first.estimateSize());
+    assertEquals(3, second.estimateSize());
+    first.forEachRemaining(values::add);
+    assertNull(first.trySplit());
+    second.forEachRemaining(values::add);
+    assertEquals(values("[1,2,3,4,5]"), values);
+  }
+}
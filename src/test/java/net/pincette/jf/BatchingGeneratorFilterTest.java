@@ -0,0 +1,91 @@
+package net.pincette.jf;
+
+import static javax.json.Json.createValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class BatchingGeneratorFilterTest {
+  private static JsonValue stream(final String json, final BatchingGeneratorFilter filter)
+      throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(
+        new JacksonParser(new JsonFactory().createParser(json)),
+        new ArrayStreamingGeneratorFilter().thenApply(filter).thenApply(builder));
+
+    return builder.build();
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void batches() throws IOException {
+    assertEquals(
+        value("[[1,{\"a\":2}],[[3],4],[5]]"),
+        stream("[1,{\"a\":2},[3],4,5]", new BatchingGeneratorFilter(2)));
+    assertEquals(value("[]"), stream("[]", new BatchingGeneratorFilter(2)));
+  }
+
+  @Test
+  void consumer() throws IOException {
+    final List<List<JsonValue>> batches = new ArrayList<>();
+
+    assertEquals(
+        value("[]"), stream("[1,2,3]", new BatchingGeneratorFilter(2).withConsumer(batches::add)));
+    assertEquals(
+        List.of(List.of(createValue(1), createValue(2)), List.of(createValue(3))), batches);
+  }
+
+  @Test
+  void elementsAsEvents() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new BatchingGeneratorFilter(10)
+        .thenApply(builder)
+        .writeStartArray()
+        .write(createValue(1))
+        .write(createValue(2))
+        .writeStartObject()
+        .write("x", 1)
+        .writeEnd()
+        .write(createValue(3))
+        .writeEnd();
+
+    assertEquals(value("[[1,2],{\"x\":1},[3]]"), builder.build());
+  }
+
+  @Test
+  void maxBytes() throws IOException {
+    assertEquals(
+        value("[[\"aaaaaaaaaa\",\"bbbbbbbbbb\"],[\"c\"]]"),
+        stream(
+            "[\"aaaaaaaaaa\",\"bbbbbbbbbb\",\"c\"]",
+            new BatchingGeneratorFilter(10).withMaxBytes(20)));
+  }
+
+  @Test
+  void objectMembers() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new BatchingGeneratorFilter(10)
+        .thenApply(builder)
+        .writeStartObject()
+        .writeKey("a")
+        .write(createValue(1))
+        .writeKey("b")
+        .write(value("[1,2]"))
+        .writeEnd();
+
+    assertEquals(value("{\"a\":1,\"b\":[1,2]}"), builder.build());
+  }
+}
@@ -0,0 +1,123 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+
+class CompactObjectTest {
+  private static JsonObjectBuilder builder(final int size) {
+    final JsonObjectBuilder result = new CompactBuilderFactory().createObjectBuilder();
+
+    for (int i = 0; i < size; ++i) {
+      result.add("k" + i, i);
+    }
+
+    return result;
+  }
+
+  private static List<String> keys(final JsonObject object) {
+    return new ArrayList<>(object.keySet());
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void builderStartsOver() {
+    final JsonObjectBuilder builder = builder(3);
+    final JsonObject first = builder.build();
+
+    builder.add("x", true);
+
+    assertEquals(3, first.size());
+    assertEquals(value("{\"x\":true}"), builder.build());
+    assertEquals(0, builder.build().size());
+  }
+
+  @Test
+  void duplicateKeysIndexed() {
+    final JsonObject object = builder(20).add("k3", "a").add("k19", "b").add("k3", "c").build();
+
+    assertEquals(20, object.size());
+    assertEquals("c", object.getString("k3"));
+    assertEquals("b", object.getString("k19"));
+    assertEquals("k3", keys(object).get(3));
+    assertEquals("k19", keys(object).get(19));
+  }
+
+  @Test
+  void duplicateKeysLinear() {
+    final JsonObject object = builder(3).add("k0", "a").add("k2", "b").add("k0", "c").build();
+
+    assertEquals(3, object.size());
+    assertEquals(List.of("k0", "k1", "k2"), keys(object));
+    assertEquals("c", object.getString("k0"));
+    assertEquals("b", object.getString("k2"));
+  }
+
+  @Test
+  void equalsOtherObjects() {
+    final String json = "{\"a\":1,\"b\":[true,null,\"s\"],\"c\":{\"d\":1.50}}";
+    final JsonParser parser = Json.createParser(new StringReader(json));
+
+    parser.next();
+
+    final JsonObject object = Util.getObject(parser, new CompactBuilderFactory());
+
+    assertEquals(value(json), object);
+    assertEquals(value(json).hashCode(), object.hashCode());
+    assertTrue(object instanceof CompactObject);
+    assertTrue(object.get("b") instanceof CompactArray);
+    assertEquals(json, object.toString());
+  }
+
+  @Test
+  void lookupIndexed() {
+    final JsonObject object = builder(100).build();
+
+    assertEquals(100, object.size());
+
+    for (int i = 0; i < 100; ++i) {
+      assertEquals(i, object.getInt("k" + i));
+      assertTrue(object.containsKey("k" + i));
+      assertEquals("k" + i, keys(object).get(i));
+    }
+
+    assertFalse(object.containsKey("k100"));
+    assertFalse(object.containsKey(1));
+    assertNull(object.get("k100"));
+  }
+
+  @Test
+  void lookupLinear() {
+    final JsonObject object = builder(8).build();
+
+    assertEquals(8, object.size());
+    assertEquals(7, object.getInt("k7"));
+    assertNull(object.get("k8"));
+    assertEquals(-1, object.getInt("k8", -1));
+    assertEquals("d", object.getString("k1", "d"));
+  }
+
+  @Test
+  void remove() {
+    final JsonObject object = builder(10).remove("k4").remove("k9").remove("x").build();
+
+    assertEquals(8, object.size());
+    assertFalse(object.containsKey("k4"));
+    assertEquals(5, object.getInt("k5"));
+    assertEquals(List.of("k0", "k1", "k2", "k3", "k5", "k6", "k7", "k8"), keys(object));
+  }
+}
@@ -0,0 +1,147 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.stream.Stream;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class EventBufferTest {
+  private static final String DOCUMENT =
+      "{\"a\":1,\"b\":[true,false,null,\"é中\"],\"c\":{\"d\":{},\"e\":[]},\"f\":-2.5}";
+
+  private static EventBuffer buffer(final String json, final long budget) throws IOException {
+    final EventBuffer result = new EventBuffer(budget);
+
+    Util.add(new JacksonParser(new JsonFactory().createParser(json)), result);
+
+    return result;
+  }
+
+  private static String large() {
+    final StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < 20000; ++i) {
+      builder.append(i > 0 ? "," : "").append("{\"i\":").append(i).append(",\"s\":\"v").append(i);
+      builder.append("\"}");
+    }
+
+    return builder.append("]").toString();
+  }
+
+  private static EventBuffer numbers(final long budget) {
+    final EventBuffer result = new EventBuffer(budget);
+
+    result
+        .writeStartArray()
+        .write(Long.MIN_VALUE)
+        .write(Long.MAX_VALUE)
+        .write(new BigInteger("123456789012345678901234567890"))
+        .write(new BigDecimal("1.50"))
+        .write(0.1)
+        .write(-0.0)
+        .writeEnd();
+
+    return result;
+  }
+
+  private static long spillFiles() throws IOException {
+    try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+      return files
+          .map(p -> p.getFileName().toString())
+          .filter(n -> n.startsWith("pincette-jsonfilter") && n.endsWith(".events"))
+          .count();
+    }
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void closeLeavesNoFile() throws IOException {
+    final long before = spillFiles();
+    final EventBuffer buffer = buffer(DOCUMENT, 8);
+
+    assertTrue(buffer.isSpilled());
+    assertEquals(value(DOCUMENT), buffer.toValue(null));
+    buffer.close();
+    assertEquals(before, spillFiles());
+  }
+
+  @Test
+  void inMemory() throws IOException {
+    final EventBuffer buffer = buffer(DOCUMENT, 1024);
+
+    assertFalse(buffer.isSpilled());
+    assertEquals(value(DOCUMENT), buffer.toValue(null));
+    buffer.close();
+  }
+
+  @Test
+  void length() throws IOException {
+    final EventBuffer memory = buffer(large(), -1 >>> 1);
+    final EventBuffer spilled = buffer(large(), 100);
+
+    assertFalse(memory.isSpilled());
+    assertTrue(spilled.isSpilled());
+    assertEquals(memory.length(), spilled.length());
+    memory.close();
+    spilled.close();
+  }
+
+  @Test
+  void numbers() {
+    final JsonValue expected =
+        Json.createArrayBuilder()
+            .add(Long.MIN_VALUE)
+            .add(Long.MAX_VALUE)
+            .add(new BigInteger("123456789012345678901234567890"))
+            .add(new BigDecimal("1.50"))
+            .add(0.1)
+            .add(-0.0)
+            .build();
+
+    for (long budget : new long[] {1024, 4}) {
+      final EventBuffer buffer = numbers(budget);
+
+      assertEquals(budget < 1024, buffer.isSpilled());
+      assertEquals(expected, buffer.toValue(null));
+      buffer.close();
+    }
+  }
+
+  @Test
+  void replayWithName() throws IOException {
+    final EventBuffer buffer = buffer(DOCUMENT, 8);
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    builder.writeStartObject();
+    buffer.replay(builder, "x").writeEnd();
+    buffer.close();
+
+    assertEquals(value("{\"x\":" + DOCUMENT + "}"), builder.build());
+  }
+
+  @Test
+  void spillsLargeDocument() throws IOException {
+    final String json = large();
+    final EventBuffer buffer = buffer(json, 1000);
+
+    assertTrue(buffer.isSpilled());
+    assertTrue(buffer.length() > 0x10000);
+    assertEquals(value(json), buffer.toValue(new CompactBuilderFactory()));
+    buffer.close();
+  }
+}
@@ -0,0 +1,106 @@
+package net.pincette.jf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser.NumberType;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class JacksonGeneratorTest {
+  private static final byte[] BINARY = {0, 1, 2, (byte) 0xff};
+
+  private static byte[] cborWithBinary() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (com.fasterxml.jackson.core.JsonGenerator generator =
+        new CBORFactory().createGenerator(out)) {
+      generator.writeStartObject();
+      generator.writeBinaryField("b", BINARY);
+      generator.writeEndObject();
+    }
+
+    return out.toByteArray();
+  }
+
+  private static String copy(final String json) throws IOException {
+    final StringWriter writer = new StringWriter();
+
+    try (JacksonGenerator generator =
+        new JacksonGenerator(new JsonFactory().createGenerator(writer))) {
+      Util.add(new JacksonParser(new JsonFactory().createParser(json)), generator);
+    }
+
+    return writer.toString();
+  }
+
+  @Test
+  void binaryToBinary() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (JacksonGenerator generator = JacksonGenerator.cbor(out)) {
+      Util.add(JacksonParser.cbor(cborWithBinary()), generator);
+    }
+
+    final com.fasterxml.jackson.core.JsonParser parser =
+        new CBORFactory().createParser(out.toByteArray());
+
+    parser.nextToken();
+    parser.nextToken();
+    parser.nextToken();
+    assertArrayEquals(BINARY, parser.getBinaryValue());
+  }
+
+  @Test
+  void binaryToText() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (JacksonGenerator generator =
+        new JacksonGenerator(new JsonFactory().createGenerator(out))) {
+      Util.add(JacksonParser.cbor(cborWithBinary()), generator);
+    }
+
+    assertEquals(
+        "{\"b\":\"" + Base64.getEncoder().encodeToString(BINARY) + "\"}",
+        new String(out.toByteArray(), UTF_8));
+  }
+
+  @Test
+  void integerTypes() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (JacksonGenerator generator = JacksonGenerator.cbor(out)) {
+      Util.add(
+          new JacksonParser(
+              new JsonFactory().createParser("[1,12345678901,123456789012345678901234567890]")),
+          generator);
+    }
+
+    final JacksonParser parser = JacksonParser.cbor(out.toByteArray());
+
+    parser.next();
+    parser.next();
+    assertEquals(NumberType.INT, parser.getNumberType());
+    parser.next();
+    assertEquals(NumberType.LONG, parser.getNumberType());
+    parser.next();
+    assertEquals(NumberType.BIG_INTEGER, parser.getNumberType());
+    assertEquals(new BigInteger("123456789012345678901234567890"), parser.getBigInteger());
+  }
+
+  @Test
+  void textIsCopiedAsIs() throws IOException {
+    final String json =
+        "{\"a\\\"b\":\"x\\ny\\u0001\",\"n\":[1.50,1E+2,-0.0,12345678901234567890.123,7],"
+            + "\"o\":{\"t\":true,\"f\":false,\"z\":null},\"e\":[],\"s\":\"\\u00e9\"}";
+
+    assertEquals(json.replace("\\u00e9", "\u00e9"), copy(json));
+  }
+}
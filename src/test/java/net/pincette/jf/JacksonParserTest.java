@@ -0,0 +1,53 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import org.junit.jupiter.api.Test;
+
+class JacksonParserTest {
+  private static final String TINY = "0." + "0".repeat(400) + "1";
+
+  private static boolean isExactDouble(final String number) throws IOException {
+    final JacksonParser parser = new JacksonParser(new JsonFactory().createParser(number));
+
+    parser.next();
+
+    return parser.isExactDouble();
+  }
+
+  @Test
+  void binaryCopyKeepsValue() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (JacksonGenerator generator = JacksonGenerator.cbor(out)) {
+      Util.add(new JacksonParser(new JsonFactory().createParser("[0.25," + TINY + "]")), generator);
+    }
+
+    final JacksonParser parser = JacksonParser.cbor(out.toByteArray());
+
+    parser.next();
+    parser.next();
+    assertEquals(0, new BigDecimal("0.25").compareTo(parser.getBigDecimal()));
+    parser.next();
+    assertEquals(0, new BigDecimal(TINY).compareTo(parser.getBigDecimal()));
+  }
+
+  @Test
+  void exactDouble() throws IOException {
+    assertTrue(isExactDouble("0.1"));
+    assertTrue(isExactDouble("-1.5e10"));
+    assertTrue(isExactDouble("123456789012.345"));
+    assertTrue(isExactDouble("1.5E-99"));
+    assertFalse(isExactDouble("1"));
+    assertFalse(isExactDouble("1234567890123.456"));
+    assertFalse(isExactDouble("1.5E-300"));
+    assertFalse(isExactDouble("0.00000000000000001"));
+    assertFalse(isExactDouble(TINY));
+  }
+}
@@ -0,0 +1,181 @@
+package net.pincette.jf;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+class JsonGeneratorFilterTest {
+  private static List<String> write(final JsonGeneratorFilter filter, final List<String> calls) {
+    filter.thenApply(new Recorder(calls));
+    filter.write("x").write(1).write("a", "y").write("b", 2);
+
+    return calls;
+  }
+
+  @Test
+  void inheritedOverrides() {
+    final List<String> calls = new ArrayList<>();
+    final List<String> expected = new ArrayList<>();
+
+    assertEquals(
+        write(new ValueAndString(expected), expected),
+        write(new ValueAndString(calls) {}, calls));
+  }
+
+  @Test
+  void namedValueOverridden() {
+    final List<String> calls = new ArrayList<>();
+
+    assertEquals(
+        asList(
+            "next write(String)",
+            "next write(int)",
+            "filter write(String, JsonValue)",
+            "next write(String, JsonValue)",
+            "filter write(String, JsonValue)",
+            "next write(String, JsonValue)"),
+        write(new NamedValue(calls), calls));
+  }
+
+  @Test
+  void noOverrides() {
+    assertEquals(
+        asList(
+            "next write(String)",
+            "next write(int)",
+            "next write(String, String)",
+            "next write(String, int)"),
+        write(new JsonGeneratorFilter(), new ArrayList<>()));
+  }
+
+  @Test
+  void typedWriterOverridden() {
+    final List<String> calls = new ArrayList<>();
+
+    assertEquals(
+        asList(
+            "filter write(String)",
+            "next write(String)",
+            "filter write(JsonValue)",
+            "next write(JsonValue)",
+            "next write(String, String)",
+            "next write(String, int)"),
+        write(new ValueAndString(calls), calls));
+  }
+
+  @Test
+  void valueOverridden() {
+    final List<String> calls = new ArrayList<>();
+
+    assertEquals(
+        asList(
+            "filter write(JsonValue)",
+            "next write(JsonValue)",
+            "filter write(JsonValue)",
+            "next write(JsonValue)",
+            "next write(String, String)",
+            "next write(String, int)"),
+        write(new Value(calls), calls));
+  }
+
+  private static class NamedValue extends JsonGeneratorFilter {
+    private final List<String> calls;
+
+    private NamedValue(final List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public JsonGenerator write(final String name, final JsonValue value) {
+      calls.add("filter write(String, JsonValue)");
+
+      return super.write(name, value);
+    }
+  }
+
+  private static class Recorder extends JsonValueGenerator {
+    private final List<String> calls;
+
+    private Recorder(final List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public JsonGenerator write(final JsonValue value) {
+      calls.add("next write(JsonValue)");
+
+      return this;
+    }
+
+    @Override
+    public JsonGenerator write(final String value) {
+      calls.add("next write(String)");
+
+      return this;
+    }
+
+    @Override
+    public JsonGenerator write(final int value) {
+      calls.add("next write(int)");
+
+      return this;
+    }
+
+    @Override
+    public JsonGenerator write(final String name, final JsonValue value) {
+      calls.add("next write(String, JsonValue)");
+
+      return this;
+    }
+
+    @Override
+    public JsonGenerator write(final String name, final String value) {
+      calls.add("next write(String, String)");
+
+      return this;
+    }
+
+    @Override
+    public JsonGenerator write(final String name, final int value) {
+      calls.add("next write(String, int)");
+
+      return this;
+    }
+  }
+
+  private static class Value extends JsonGeneratorFilter {
+    private final List<String> calls;
+
+    private Value(final List<String> calls) {
+      this.calls = calls;
+    }
+
+    @Override
+    public JsonGenerator write(final JsonValue value) {
+      calls.add("filter write(JsonValue)");
+
+      return super.write(value);
+    }
+  }
+
+  private static class ValueAndString extends Value {
+    private final List<String> calls;
+
+    private ValueAndString(final List<String> calls) {
+      super(calls);
+      this.calls = calls;
+    }
+
+    @Override
+    public JsonGenerator write(final String value) {
+      calls.add("filter write(String)");
+
+      return super.write(value);
+    }
+  }
+}
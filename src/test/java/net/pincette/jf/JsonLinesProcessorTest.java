@@ -0,0 +1,160 @@
+package net.pincette.jf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.json.JsonException;
+import javax.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+class JsonLinesProcessorTest {
+  private static String lines(final int count) {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < count; ++i) {
+      builder.append("{\"i\":").append(i).append(",\"e\":{},\"s\":\"v").append(i).append("\"}\n");
+    }
+
+    return builder.toString();
+  }
+
+  private static String process(final JsonLinesProcessor processor, final String input) {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final JsonGenerator generator = JacksonGenerator.jsonLines(out);
+
+    processor.process(new ByteArrayInputStream(input.getBytes(UTF_8)), generator);
+    generator.close();
+
+    return new String(out.toByteArray(), UTF_8);
+  }
+
+  private static String process(
+      final Supplier<JsonGeneratorFilter> chain, final boolean ordered, final String input) {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    try {
+      return process(
+          new JsonLinesProcessor(chain)
+              .withBatchSize(64)
+              .withExecutor(executor)
+              .withMaxInFlight(8)
+              .withOrdered(ordered),
+          input);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static String[] sorted(final String lines) {
+    final String[] result = lines.split("\n");
+
+    Arrays.sort(result);
+
+    return result;
+  }
+
+  private static String withoutEmpty(final String lines) {
+    return lines.replace(",\"e\":{}", "");
+  }
+
+  @Test
+  void failureStopsReading() {
+    final AtomicInteger processed = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    final JsonLinesProcessor processor =
+        new JsonLinesProcessor(() -> new Failing(processed))
+            .withBatchSize(64)
+            .withExecutor(executor)
+            .withMaxInFlight(4);
+
+    try {
+      final JsonException e =
+          assertThrows(
+              JsonException.class,
+              () -> process(processor, lines(5) + "{\"fail\":true}\n" + lines(10000)));
+
+      assertEquals("fail", e.getMessage());
+      assertTrue(processed.get() < 10000);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void longLines() {
+    final String line = "{\"s\":\"" + "x".repeat(1000) + "\"}\n";
+
+    assertEquals(line + line, process(() -> null, true, line + line));
+  }
+
+  @Test
+  void noFinalNewline() {
+    assertEquals("1\n{\"a\":2}\n\"3\"\n", process(() -> null, true, "1\n{\"a\":2}\n\"3\""));
+  }
+
+  @Test
+  void ordered() {
+    final String input = lines(2000);
+
+    assertEquals(withoutEmpty(input), process(Delaying::new, true, input));
+  }
+
+  @Test
+  void unordered() {
+    final String input = lines(2000);
+
+    assertEquals(
+        Arrays.asList(sorted(withoutEmpty(input))),
+        Arrays.asList(sorted(process(Delaying::new, false, input))));
+  }
+
+  /** Takes a random short time for every object and removes the empty ones. */
+  private static class Delaying extends RemoveEmptyObjectsGenerator {
+    @Override
+    public JsonGenerator writeStartObject() {
+      if (ThreadLocalRandom.current().nextInt(20) == 0) {
+        try {
+          Thread.sleep(1);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      return super.writeStartObject();
+    }
+  }
+
+  private static class Failing extends JsonGeneratorFilter {
+    private final AtomicInteger processed;
+
+    private Failing(final AtomicInteger processed) {
+      this.processed = processed;
+    }
+
+    @Override
+    public JsonGenerator writeKey(final String name) {
+      if (name.equals("fail")) {
+        throw new JsonException("fail");
+      }
+
+      return super.writeKey(name);
+    }
+
+    @Override
+    public JsonGenerator writeStartObject() {
+      processed.incrementAndGet();
+
+      return super.writeStartObject();
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package net.pincette.jf;
+
+import static com.fasterxml.jackson.core.JsonParser.NumberType.BIG_DECIMAL;
+import static com.fasterxml.jackson.core.JsonParser.NumberType.BIG_INTEGER;
+import static com.fasterxml.jackson.core.JsonParser.NumberType.DOUBLE;
+import static com.fasterxml.jackson.core.JsonParser.NumberType.INT;
+import static com.fasterxml.jackson.core.JsonParser.NumberType.LONG;
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import javax.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+
+class JsonPipeTest {
+  private static final BigInteger BIG = new BigInteger("123456789012345678901234567890");
+
+  private static String large() {
+    final StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < 10000; ++i) {
+      builder.append(i > 0 ? "," : "").append("{\"i\":").append(i).append(",\"a\":[true,null,");
+      builder.append(i).append(".5,\"s").append(i).append("\"]}");
+    }
+
+    return builder.append("]").toString();
+  }
+
+  private static Thread start(final Runnable runnable) {
+    final Thread thread = new Thread(runnable);
+
+    thread.start();
+
+    return thread;
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  private static void writeNumbers(final JsonGenerator generator) {
+    generator
+        .writeStartArray()
+        .write(1)
+        .write(Long.MAX_VALUE)
+        .write(BIG)
+        .write(new BigDecimal("1.50"))
+        .write(0.1)
+        .writeEnd()
+        .close();
+  }
+
+  @Test
+  void endOfInput() {
+    final JsonPipe pipe = new JsonPipe();
+
+    pipe.getGenerator().writeStartArray().writeEnd().close();
+
+    final JsonParser parser = pipe.getParser();
+
+    assertEquals(START_ARRAY, parser.next());
+    assertEquals(END_ARRAY, parser.next());
+    assertFalse(parser.hasNext());
+    assertThrows(NoSuchElementException.class, parser::next);
+  }
+
+  @Test
+  void numberTypes() {
+    final JsonPipe pipe = new JsonPipe();
+    final JsonParser parser = pipe.getParser();
+    final TypedNumberParser typed = (TypedNumberParser) ((JsonParserWrapper) parser).getDelegate();
+
+    writeNumbers(pipe.getGenerator());
+    parser.next();
+
+    assertEquals(VALUE_NUMBER, parser.next());
+    assertEquals(INT, typed.getNumberType());
+    assertEquals(VALUE_NUMBER, parser.next());
+    assertEquals(LONG, typed.getNumberType());
+    assertEquals(Long.MAX_VALUE, parser.getLong());
+    assertEquals(VALUE_NUMBER, parser.next());
+    assertEquals(BIG_INTEGER, typed.getNumberType());
+    assertEquals(BIG, parser.getBigDecimal().toBigInteger());
+    assertEquals(VALUE_NUMBER, parser.next());
+    assertEquals(BIG_DECIMAL, typed.getNumberType());
+    assertEquals("1.50", parser.getString());
+    assertFalse(parser.isIntegralNumber());
+    assertEquals(VALUE_NUMBER, parser.next());
+    assertEquals(DOUBLE, typed.getNumberType());
+    assertTrue(typed.isDouble());
+    assertEquals(0.1, typed.getDouble());
+  }
+
+  @Test
+  void numbersCopied() throws IOException {
+    final JsonPipe pipe = new JsonPipe();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final JsonGenerator generator = new JacksonGenerator(new JsonFactory().createGenerator(out));
+
+    writeNumbers(pipe.getGenerator());
+    Util.add(pipe.getParser(), generator);
+    generator.close();
+
+    assertEquals(
+        "[1,9223372036854775807,123456789012345678901234567890,1.50,0.1]", out.toString());
+  }
+
+  @Test
+  void parserClosedFirst() throws InterruptedException {
+    final JsonPipe pipe = new JsonPipe(4);
+    final AtomicReference<Throwable> error = new AtomicReference<>();
+    final Thread producer =
+        start(
+            () -> {
+              try {
+                pipe.getGenerator().writeStartArray();
+
+                while (true) {
+                  pipe.getGenerator().write(1);
+                }
+              } catch (Throwable e) {
+                error.set(e);
+              }
+            });
+
+    pipe.getParser().next();
+    pipe.getParser().close();
+    producer.join(10000);
+
+    assertFalse(producer.isAlive());
+    assertTrue(error.get() instanceof JsonException);
+  }
+
+  @Test
+  void producerAndConsumerThreads() throws InterruptedException, IOException {
+    final String json = large();
+    final JsonPipe pipe = new JsonPipe(4);
+    final JacksonParser in = new JacksonParser(new JsonFactory().createParser(json));
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+    final Thread producer =
+        start(
+            () -> {
+              Util.add(in, pipe.getGenerator());
+              pipe.getGenerator().close();
+            });
+
+    Util.add(pipe.getParser(), builder);
+    producer.join(10000);
+
+    assertFalse(producer.isAlive());
+    assertFalse(pipe.getParser().hasNext());
+    assertEquals(value(json), builder.build());
+  }
+
+  @Test
+  void slowProducer() throws InterruptedException {
+    final JsonPipe pipe = new JsonPipe();
+    final Thread producer =
+        start(
+            () -> {
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+
+              pipe.getGenerator().write("x").close();
+            });
+
+    final JsonParser parser = pipe.getParser();
+
+    assertTrue(parser.hasNext());
+    assertEquals(VALUE_STRING, parser.next());
+    assertEquals("x", parser.getString());
+    assertFalse(parser.hasNext());
+    producer.join(10000);
+  }
+
+  @Test
+  void unbalancedEnd() {
+    assertThrows(JsonException.class, () -> new JsonPipe().getGenerator().writeEnd());
+  }
+}
@@ -0,0 +1,67 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import javax.json.Json;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The examples of appendix A of RFC 7396. Those with a patch that isn't an object are left out,
+ * because <code>Util.mergePatch</code> only accepts objects.
+ */
+class MergePatchTest {
+  private static void assertPatch(final String target, final String patch, final String expected)
+      throws IOException {
+    final JsonFactory factory = new JsonFactory();
+    final StringWriter writer = new StringWriter();
+
+    try (JsonGenerator generator = new JacksonGenerator(factory.createGenerator(writer))) {
+      Util.mergePatch(
+          new JacksonParser(factory.createParser(target)), value(patch).asJsonObject(), generator);
+    }
+
+    assertEquals(value(expected), value(writer.toString()));
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void addMember() throws IOException {
+    assertPatch("{\"a\":\"b\"}", "{\"b\":\"c\"}", "{\"a\":\"b\",\"b\":\"c\"}");
+    assertPatch("{\"e\":null}", "{\"a\":1}", "{\"e\":null,\"a\":1}");
+  }
+
+  @Test
+  void nested() throws IOException {
+    assertPatch(
+        "{\"a\":{\"b\":\"c\"}}", "{\"a\":{\"b\":\"d\",\"c\":null}}", "{\"a\":{\"b\":\"d\"}}");
+    assertPatch("{}", "{\"a\":{\"bb\":{\"ccc\":null}}}", "{\"a\":{\"bb\":{}}}");
+  }
+
+  @Test
+  void removeMember() throws IOException {
+    assertPatch("{\"a\":\"b\"}", "{\"a\":null}", "{}");
+    assertPatch("{\"a\":\"b\",\"b\":\"c\"}", "{\"a\":null}", "{\"b\":\"c\"}");
+  }
+
+  @Test
+  void replaceMember() throws IOException {
+    assertPatch("{\"a\":\"b\"}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+    assertPatch("{\"a\":[\"b\"]}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+    assertPatch("{\"a\":\"c\"}", "{\"a\":[\"b\"]}", "{\"a\":[\"b\"]}");
+    assertPatch("{\"a\":[{\"b\":\"c\"}]}", "{\"a\":[1]}", "{\"a\":[1]}");
+  }
+
+  @Test
+  void replaceTarget() throws IOException {
+    assertPatch("[1,2]", "{\"a\":\"b\",\"c\":null}", "{\"a\":\"b\"}");
+  }
+}
@@ -0,0 +1,137 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import org.junit.jupiter.api.Test;
+
+class MetricsParserTest {
+  private static final String DOCUMENT = "{\"a\":[1,{\"b\":[2]}],\"c\":{\"d\":true},\"e\":\"x\"}";
+
+  private static JsonParser parser(final String json, final Metrics metrics) throws IOException {
+    return new MetricsParser(new JacksonParser(new JsonFactory().createParser(json)), metrics);
+  }
+
+  private static void rest(final JsonParser parser) {
+    while (parser.hasNext()) {
+      parser.next();
+    }
+  }
+
+  @Test
+  void all() throws IOException {
+    final Recorder recorder = new Recorder();
+
+    rest(parser(DOCUMENT, recorder));
+
+    assertEquals(
+        List.of(
+            "START_OBJECT 1",
+            "KEY_NAME 1",
+            "START_ARRAY 2",
+            "VALUE_NUMBER 2",
+            "START_OBJECT 3",
+            "KEY_NAME 3",
+            "START_ARRAY 4",
+            "VALUE_NUMBER 4",
+            "END_ARRAY 3",
+            "END_OBJECT 2",
+            "END_ARRAY 1",
+            "KEY_NAME 1",
+            "START_OBJECT 2",
+            "KEY_NAME 2",
+            "VALUE_TRUE 2",
+            "END_OBJECT 1",
+            "KEY_NAME 1",
+            "VALUE_STRING 1",
+            "END_OBJECT 0",
+            "document"),
+        recorder.events);
+  }
+
+  @Test
+  void skipMismatch() throws IOException {
+    final Recorder recorder = new Recorder();
+    final JsonParser parser = parser("{\"a\":1}", recorder);
+
+    parser.next();
+    parser.skipArray();
+    rest(parser);
+
+    assertEquals(
+        List.of("START_OBJECT 1", "KEY_NAME 1", "VALUE_NUMBER 1", "END_OBJECT 0", "document"),
+        recorder.events);
+  }
+
+  @Test
+  void skipNested() throws IOException {
+    final Recorder recorder = new Recorder();
+    final JsonParser parser = parser(DOCUMENT, recorder);
+
+    parser.next();
+    parser.next();
+    parser.next();
+    parser.skipArray();
+    parser.next();
+    parser.next();
+    parser.skipObject();
+    rest(parser);
+
+    assertEquals(
+        List.of(
+            "START_OBJECT 1",
+            "KEY_NAME 1",
+            "START_ARRAY 2",
+            "END_ARRAY 1",
+            "KEY_NAME 1",
+            "START_OBJECT 2",
+            "END_OBJECT 1",
+            "KEY_NAME 1",
+            "VALUE_STRING 1",
+            "END_OBJECT 0",
+            "document"),
+        recorder.events);
+  }
+
+  @Test
+  void skipRoot() throws IOException {
+    final Recorder recorder = new Recorder();
+    final JsonParser parser = parser(DOCUMENT + "[1]", recorder);
+
+    parser.next();
+    parser.skipObject();
+    parser.next();
+    parser.skipArray();
+
+    assertEquals(
+        List.of(
+            "START_OBJECT 1",
+            "END_OBJECT 0",
+            "document",
+            "START_ARRAY 1",
+            "END_ARRAY 0",
+            "document"),
+        recorder.events);
+  }
+
+  private static class Recorder implements Metrics {
+    private final List<String> events = new ArrayList<>();
+
+    public void document() {
+      events.add("document");
+    }
+
+    public void event(final Event event, final long bytes, final int depth) {
+      events.add(event + " " + depth);
+    }
+
+    public void time(final long nanos) {
+      // Not recorded.
+    }
+  }
+}
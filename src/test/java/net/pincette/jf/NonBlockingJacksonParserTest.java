@@ -0,0 +1,130 @@
+package net.pincette.jf;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import org.junit.jupiter.api.Test;
+
+class NonBlockingJacksonParserTest {
+  private static List<Event> events(final JsonParser parser) {
+    final List<Event> result = new ArrayList<>();
+
+    while (parser.hasNext()) {
+      result.add(parser.next());
+    }
+
+    return result;
+  }
+
+  private static List<Event> eventsInChunks(
+      final NonBlockingJacksonParser parser, final JsonParser wrapper, final String... chunks) {
+    final List<Event> result = new ArrayList<>();
+
+    for (String chunk : chunks) {
+      feed(parser, chunk);
+      result.addAll(events(wrapper));
+    }
+
+    parser.endOfInput();
+    result.addAll(events(wrapper));
+
+    return result;
+  }
+
+  private static NonBlockingJacksonParser feed(
+      final NonBlockingJacksonParser parser, final String chunk) {
+    return parser.feed(chunk.getBytes(UTF_8));
+  }
+
+  private static List<Event> next(final JsonParser parser, final int count) {
+    final List<Event> result = new ArrayList<>();
+
+    for (int i = 0; i < count; ++i) {
+      result.add(parser.next());
+    }
+
+    return result;
+  }
+
+  @Test
+  void projectionInChunks() {
+    final NonBlockingJacksonParser parser = new NonBlockingJacksonParser();
+
+    assertEquals(
+        List.of(START_OBJECT, KEY_NAME, VALUE_NUMBER, END_OBJECT),
+        eventsInChunks(
+            parser,
+            new ProjectingParser(parser, "b"),
+            "{\"a\":{\"x\":[1,",
+            "[2,3]],\"y\":",
+            "{}},\"b\":1,\"c\":[",
+            "4]}"));
+  }
+
+  @Test
+  void skipInChunks() {
+    final NonBlockingJacksonParser parser = new NonBlockingJacksonParser();
+
+    feed(parser, "{\"a\":[1,[2,");
+    assertEquals(List.of(START_OBJECT, KEY_NAME, START_ARRAY), next(parser, 3));
+    parser.skipArray();
+    assertFalse(parser.hasNext());
+    assertTrue(parser.needMoreInput());
+    feed(parser, "3],4],\"b\":{\"c\":");
+    assertEquals(KEY_NAME, parser.next());
+    assertEquals("b", parser.getString());
+    assertEquals(START_OBJECT, parser.next());
+    parser.skipObject();
+    assertFalse(parser.hasNext());
+    feed(parser, "5}}");
+    parser.endOfInput();
+    assertEquals(List.of(END_OBJECT), events(parser));
+  }
+
+  @Test
+  void skipWithLookaheadInChunks() {
+    final NonBlockingJacksonParser parser = new NonBlockingJacksonParser();
+
+    feed(parser, "[[1,");
+    assertEquals(START_ARRAY, parser.next());
+    assertTrue(parser.hasNext());
+    parser.skipArray();
+    assertFalse(parser.hasNext());
+    feed(parser, "2],[3]]");
+    parser.endOfInput();
+    assertEquals(List.of(), events(parser));
+  }
+
+  @Test
+  void validationInChunks() {
+    final NonBlockingJacksonParser parser = new NonBlockingJacksonParser();
+    final JsonParser validating =
+        new ValidatingParser(
+            parser,
+            JsonSchema.compile(
+                Json.createReader(
+                        new StringReader("{\"properties\":{\"b\":{\"type\":\"integer\"}}}"))
+                    .readObject()));
+
+    feed(parser, "{\"a\":[1,[2,");
+    assertEquals(List.of(START_OBJECT, KEY_NAME, START_ARRAY), next(validating, 3));
+    validating.skipArray();
+    assertFalse(validating.hasNext());
+    assertEquals(
+        List.of(KEY_NAME, VALUE_NUMBER, END_OBJECT),
+        eventsInChunks(parser, validating, "3]],\"b\":4}"));
+  }
+}
@@ -0,0 +1,168 @@
+package net.pincette.jf;
+
+import static javax.json.Json.createValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonNumber;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+class ParallelGeneratorFilterTest {
+  private static String indexes(final int count) {
+    final StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < count; ++i) {
+      builder.append(i > 0 ? "," : "").append(i);
+    }
+
+    return builder.append("]").toString();
+  }
+
+  private static String numbers(final int count) {
+    final StringBuilder builder = new StringBuilder("[");
+
+    for (int i = 0; i < count; ++i) {
+      builder.append(i > 0 ? "," : "").append("{\"i\":").append(i).append(",\"e\":{}}");
+    }
+
+    return builder.append("]").toString();
+  }
+
+  private static void sleep() {
+    if (ThreadLocalRandom.current().nextInt(10) == 0) {
+      try {
+        Thread.sleep(1);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static JsonValue stream(final String json, final ParallelGeneratorFilter filter)
+      throws IOException {
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    try {
+      Util.add(
+          new JacksonParser(new JsonFactory().createParser(json)),
+          new ArrayStreamingGeneratorFilter()
+              .thenApply(filter.withExecutor(executor).withMaxInFlight(8))
+              .thenApply(builder));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    return builder.build();
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void chain() throws IOException {
+    assertEquals(
+        value(indexes(500)), stream(numbers(500), new ParallelGeneratorFilter(Member::new)));
+  }
+
+  @Test
+  void dropped() throws IOException {
+    assertEquals(
+        value("[1,3]"),
+        stream(
+            "[1,2,3]",
+            new ParallelGeneratorFilter(v -> ((JsonNumber) v).intValue() == 2 ? null : v)));
+  }
+
+  @Test
+  void elementsAsEvents() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new ParallelGeneratorFilter(v -> createValue(((JsonNumber) v).intValue() * 2))
+        .thenApply(builder)
+        .writeStartArray()
+        .write(createValue(1))
+        .writeStartObject()
+        .write("x", 1)
+        .writeEnd()
+        .write(createValue(2))
+        .writeEnd();
+
+    assertEquals(value("[2,{\"x\":1},4]"), builder.build());
+  }
+
+  @Test
+  void failureCancels() {
+    final AtomicInteger processed = new AtomicInteger();
+    final JsonException e =
+        assertThrows(
+            JsonException.class,
+            () ->
+                stream(
+                    numbers(10000),
+                    new ParallelGeneratorFilter(
+                        v -> {
+                          processed.incrementAndGet();
+
+                          if (v.asJsonObject().getInt("i") == 5) {
+                            throw new JsonException("fail");
+                          }
+
+                          return v;
+                        })));
+
+    assertEquals("fail", e.getMessage());
+    assertTrue(processed.get() < 10000);
+  }
+
+  @Test
+  void objectMembers() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new ParallelGeneratorFilter(v -> JsonValue.NULL)
+        .thenApply(builder)
+        .writeStartObject()
+        .writeKey("a")
+        .write(createValue(1))
+        .writeEnd();
+
+    assertEquals(value("{\"a\":1}"), builder.build());
+  }
+
+  @Test
+  void ordered() throws IOException {
+    assertEquals(
+        value(numbers(2000)),
+        stream(
+            numbers(2000),
+            new ParallelGeneratorFilter(
+                v -> {
+                  sleep();
+
+                  return v;
+                })));
+  }
+
+  /** Replaces an element with its member "i", taking a random short time. */
+  private static class Member extends JsonGeneratorFilter {
+    @Override
+    public JsonGenerator write(final JsonValue value) {
+      sleep();
+
+      return super.write(value.asJsonObject().get("i"));
+    }
+  }
+}
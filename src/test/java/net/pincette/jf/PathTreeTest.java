@@ -0,0 +1,80 @@
+package net.pincette.jf;
+
+import static java.util.Arrays.asList;
+import static net.pincette.jf.PathTree.ALL;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+
+class PathTreeTest {
+  private static final String DOCUMENT =
+      "{\"a\":{\"b\":1,\"c\":2,\"d\":3},\"x\":{\"b\":4,\"c\":5,\"d\":6}}";
+  private static final String PROJECTED = "{\"a\":{\"b\":1,\"c\":2},\"x\":{\"c\":5}}";
+
+  private static JsonParser parser(final String json) throws IOException {
+    return new JacksonParser(new JsonFactory().createParser(json));
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void indexKeepsWildcard() {
+    final PathTree root = PathTree.compile(asList("/0/0", "/*/2"));
+
+    assertSame(ALL, root.child(0).child(0));
+    assertSame(ALL, root.child(0).child(2));
+    assertNull(root.child(0).child(1));
+    assertSame(ALL, root.child(1).child(2));
+    assertNull(root.child(1).child(0));
+  }
+
+  @Test
+  void keyKeepsWildcard() {
+    for (PathTree root :
+        new PathTree[] {
+          PathTree.compile(asList("a.b", "*.c")), PathTree.compile(asList("*.c", "a.b"))
+        }) {
+      assertSame(ALL, root.child("a").child("b"));
+      assertSame(ALL, root.child("a").child("c"));
+      assertNull(root.child("a").child("d"));
+      assertSame(ALL, root.child("x").child("c"));
+      assertNull(root.child("x").child("b"));
+    }
+  }
+
+  @Test
+  void nestedWildcards() {
+    final PathTree a = PathTree.compile(asList("a.b.d", "a.*.c", "*.e")).child("a");
+
+    assertSame(ALL, a.child("b").child("c"));
+    assertSame(ALL, a.child("b").child("d"));
+    assertSame(ALL, a.child("e"));
+    assertSame(ALL, a.child("f").child("c"));
+    assertNull(a.child("f").child("d"));
+  }
+
+  @Test
+  void projectingGeneratorFilter() throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(parser(DOCUMENT), new ProjectingGeneratorFilter("a.b", "*.c").thenApply(builder));
+    assertEquals(value(PROJECTED), builder.build());
+  }
+
+  @Test
+  void projectingParser() throws IOException {
+    final JsonParser parser = new ProjectingParser(parser(DOCUMENT), "a.b", "*.c");
+
+    assertEquals(value(PROJECTED), Util.getValue(parser.next(), parser));
+  }
+}
@@ -0,0 +1,105 @@
+package net.pincette.jf;
+
+import static javax.json.JsonValue.ValueType.ARRAY;
+import static javax.json.JsonValue.ValueType.OBJECT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonValue;
+import javax.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+class ProjectingGeneratorFilterTest {
+  private static <T extends JsonValue> T unwalkable(final Class<T> type) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> {
+              if (method.getName().equals("getValueType")) {
+                return type == JsonArray.class ? ARRAY : OBJECT;
+              }
+
+              throw new AssertionError("walked " + method.getName());
+            }));
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void scalarsAreNotBoxed() {
+    final List<String> calls = new ArrayList<>();
+
+    new ProjectingGeneratorFilter("a", "c")
+        .thenApply(
+            new JsonValueGenerator() {
+              @Override
+              public JsonGenerator write(final String name, final JsonValue value) {
+                calls.add("write(String, JsonValue)");
+
+                return this;
+              }
+
+              @Override
+              public JsonGenerator write(final String name, final int value) {
+                calls.add("write(String, int)");
+
+                return this;
+              }
+
+              @Override
+              public JsonGenerator write(final String name, final String value) {
+                calls.add("write(String, String)");
+
+                return this;
+              }
+            })
+        .writeStartObject()
+        .write("a", 1)
+        .write("b", 2)
+        .write("c", "x")
+        .writeEnd();
+
+    assertEquals(List.of("write(String, int)", "write(String, String)"), calls);
+  }
+
+  @Test
+  void structureValues() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new ProjectingGeneratorFilter("a.b", "*.c", "d")
+        .thenApply(builder)
+        .writeStartObject()
+        .write("a", value("{\"b\":1,\"c\":2,\"e\":3}"))
+        .write("d", value("{\"x\":[1,2]}"))
+        .write("f", value("{\"c\":{\"y\":4},\"z\":5}"))
+        .writeEnd();
+
+    assertEquals(
+        value("{\"a\":{\"b\":1,\"c\":2},\"d\":{\"x\":[1,2]},\"f\":{\"c\":{\"y\":4}}}"),
+        builder.build());
+  }
+
+  @Test
+  void unselectedStructuresAreNotWalked() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new ProjectingGeneratorFilter("/0/a", "b")
+        .thenApply(builder)
+        .writeStartArray()
+        .write(value("{\"a\":1,\"b\":2}"))
+        .write(unwalkable(JsonObject.class))
+        .write(unwalkable(JsonArray.class))
+        .writeEnd();
+
+    assertEquals(value("[{\"a\":1}]"), builder.build());
+  }
+}
@@ -0,0 +1,66 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class PruningGeneratorFilterTest {
+  private static JsonValue prune(final String json, final PruningGeneratorFilter filter)
+      throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(new JacksonParser(new JsonFactory().createParser(json)), filter.thenApply(builder));
+
+    return builder.build();
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void keepsTopLevel() throws IOException {
+    assertEquals(value("{}"), prune("{}", new PruningGeneratorFilter()));
+    assertEquals(value("[]"), prune("[]", new PruningGeneratorFilter()));
+    assertEquals(value("[]"), prune("[null,\"\",{},[]]", new PruningGeneratorFilter()));
+  }
+
+  @Test
+  void nestedEmptyObjects() throws IOException {
+    assertEquals(value("{}"), prune("{\"a\":{\"b\":{}}}", new PruningGeneratorFilter()));
+    assertEquals(
+        value("{\"a\":{\"c\":1}}"),
+        prune("{\"a\":{\"b\":{},\"c\":1},\"d\":{\"e\":{\"f\":{}}}}", new PruningGeneratorFilter()));
+  }
+
+  @Test
+  void nullsAndEmptyStrings() throws IOException {
+    assertEquals(
+        value("{\"c\":[1,\"x\"]}"),
+        prune(
+            "{\"a\":null,\"b\":\"\",\"c\":[null,1,\"\",\"x\"],\"d\":[[],{\"e\":null}]}",
+            new PruningGeneratorFilter()));
+  }
+
+  @Test
+  void turnedOff() throws IOException {
+    assertEquals(
+        value("{\"a\":{\"b\":{}}}"),
+        prune("{\"a\":{\"b\":{}}}", new PruningGeneratorFilter().withPruneEmptyObjects(false)));
+    assertEquals(
+        value("{\"a\":[],\"c\":\"\"}"),
+        prune(
+            "{\"a\":[],\"b\":null,\"c\":\"\"}",
+            new PruningGeneratorFilter()
+                .withPruneEmptyArrays(false)
+                .withPruneEmptyStrings(false)));
+    assertEquals(
+        value("{\"b\":null}"),
+        prune("{\"a\":[],\"b\":null}", new PruningGeneratorFilter().withPruneNulls(false)));
+  }
+}
@@ -0,0 +1,60 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class RemoveEmptyObjectsGeneratorTest {
+  private static JsonValue remove(final String json) throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(
+        new JacksonParser(new JsonFactory().createParser(json)),
+        new RemoveEmptyObjectsGenerator().thenApply(builder));
+
+    return builder.build();
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void keepsTopLevel() throws IOException {
+    assertEquals(value("{}"), remove("{}"));
+  }
+
+  @Test
+  void keys() throws IOException {
+    assertEquals(
+        value("{\"b\":1,\"c\":{\"e\":null},\"f\":[2],\"g\":\"x\"}"),
+        remove("{\"a\":{},\"b\":1,\"c\":{\"d\":{},\"e\":null},\"f\":[{},2],\"g\":\"x\"}"));
+  }
+
+  @Test
+  void namedWrites() {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    new RemoveEmptyObjectsGenerator()
+        .thenApply(builder)
+        .writeStartObject()
+        .writeStartObject("a")
+        .writeEnd()
+        .writeStartObject("b")
+        .writeStartObject("c")
+        .writeEnd()
+        .write("d", 1)
+        .writeEnd()
+        .writeNull("e")
+        .writeStartArray("f")
+        .writeEnd()
+        .writeEnd();
+
+    assertEquals(value("{\"b\":{\"d\":1},\"e\":null,\"f\":[]}"), builder.build());
+  }
+}
@@ -0,0 +1,47 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import javax.json.Json;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import org.junit.jupiter.api.Test;
+
+class UtilTest {
+  private static final String NUMBERS =
+      "{\"a\":1.50,\"b\":1E+2,\"c\":[2.50,-0.0,7,12345678901234567890],\"d\":0.1}";
+
+  private static JsonParser parser(final String json) throws IOException {
+    return new JacksonParser(new JsonFactory().createParser(json));
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  @Test
+  void addKeepsScale() throws IOException {
+    final JsonBuilderGenerator builder = new JsonBuilderGenerator();
+
+    Util.add(parser(NUMBERS), builder);
+    assertEquals(value(NUMBERS), builder.build());
+  }
+
+  @Test
+  void getObjectKeepsScale() throws IOException {
+    final JsonParser parser = parser(NUMBERS);
+
+    parser.next();
+    assertEquals(value(NUMBERS), Util.getObject(parser));
+  }
+
+  @Test
+  void getValueKeepsScale() throws IOException {
+    final JsonParser parser = parser(NUMBERS);
+
+    assertEquals(value(NUMBERS), Util.getValue(parser.next(), parser));
+  }
+}
@@ -0,0 +1,145 @@
+package net.pincette.jf;
+
+import static javax.json.stream.JsonParser.Event.END_ARRAY;
+import static javax.json.stream.JsonParser.Event.END_OBJECT;
+import static javax.json.stream.JsonParser.Event.KEY_NAME;
+import static javax.json.stream.JsonParser.Event.START_ARRAY;
+import static javax.json.stream.JsonParser.Event.START_OBJECT;
+import static javax.json.stream.JsonParser.Event.VALUE_NUMBER;
+import static javax.json.stream.JsonParser.Event.VALUE_STRING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import org.junit.jupiter.api.Test;
+
+class ValidatingParserTest {
+  private static final String DOCUMENT = "{\"s\":\"abc\",\"l\":[\"x\",\"y\",{\"k\":1}],\"t\":2}";
+  private static final JsonSchema SCHEMA =
+      schema(
+          "{\"type\":\"object\",\"properties\":{\"l\":{\"type\":\"array\","
+              + "\"items\":{\"type\":[\"string\",\"object\"]}}}}");
+
+  private static List<Event> events(final JsonParser parser) {
+    final List<Event> result = new ArrayList<>();
+
+    while (parser.hasNext()) {
+      result.add(parser.next());
+    }
+
+    return result;
+  }
+
+  private static JsonParser parser(final String json, final JsonSchema schema, final int skip)
+      throws IOException {
+    final JsonParser result =
+        new ValidatingParser(new JacksonParser(new JsonFactory().createParser(json)), schema);
+
+    for (int i = 0; i < skip; ++i) {
+      result.next();
+    }
+
+    return result;
+  }
+
+  private static String pointer(final String json, final JsonSchema schema) throws IOException {
+    final JsonParser parser = parser(json, schema, 0);
+
+    return assertThrows(SchemaViolationException.class, () -> events(parser)).getPointer();
+  }
+
+  private static JsonSchema schema(final String json) {
+    return JsonSchema.compile(Json.createReader(new StringReader(json)).readObject());
+  }
+
+  @Test
+  void pointers() throws IOException {
+    final JsonSchema schema =
+        schema(
+            "{\"required\":[\"id\"],\"properties\":{\"id\":{\"type\":\"integer\"},"
+                + "\"o\":{\"properties\":{\"a/b\":{\"maxLength\":1}}},"
+                + "\"l\":{\"items\":{\"maximum\":10}}}}");
+
+    assertEquals("", pointer("{}", schema));
+    assertEquals("/id", pointer("{\"id\":1.5}", schema));
+    assertEquals("/o/a~1b", pointer("{\"id\":1,\"o\":{\"a/b\":\"xy\"}}", schema));
+    assertEquals("/l/2", pointer("{\"id\":1,\"l\":[1,2,11]}", schema));
+  }
+
+  @Test
+  void skipArrayInArray() throws IOException {
+    final JsonParser parser = parser(DOCUMENT, SCHEMA, 6);
+
+    parser.skipArray();
+    assertEquals(List.of(KEY_NAME, VALUE_NUMBER, END_OBJECT), events(parser));
+  }
+
+  @Test
+  void skipArrayInObject() throws IOException {
+    final JsonParser parser = parser(DOCUMENT, SCHEMA, 2);
+
+    parser.skipArray();
+    assertEquals(VALUE_STRING, parser.next());
+  }
+
+  @Test
+  void skipAtTop() throws IOException {
+    final JsonParser parser = parser(DOCUMENT, SCHEMA, 0);
+
+    parser.skipObject();
+    assertEquals(START_OBJECT, parser.next());
+  }
+
+  @Test
+  void skipObjectInArray() throws IOException {
+    final JsonParser parser = parser(DOCUMENT, SCHEMA, 5);
+
+    parser.skipObject();
+    assertEquals(VALUE_STRING, parser.next());
+  }
+
+  @Test
+  void skipObjectInObject() throws IOException {
+    final JsonParser parser = parser(DOCUMENT, SCHEMA, 1);
+
+    parser.skipObject();
+    assertEquals(List.of(), events(parser));
+  }
+
+  @Test
+  void skippedValuesAreValidated() throws IOException {
+    final JsonParser parser = parser("{\"l\":[\"x\",3]}", SCHEMA, 4);
+
+    assertEquals(
+        "/l/1", assertThrows(SchemaViolationException.class, parser::skipArray).getPointer());
+  }
+
+  @Test
+  void validDocument() throws IOException {
+    assertEquals(
+        List.of(
+            START_OBJECT,
+            KEY_NAME,
+            VALUE_STRING,
+            KEY_NAME,
+            START_ARRAY,
+            VALUE_STRING,
+            VALUE_STRING,
+            START_OBJECT,
+            KEY_NAME,
+            VALUE_NUMBER,
+            END_OBJECT,
+            END_ARRAY,
+            KEY_NAME,
+            VALUE_NUMBER,
+            END_OBJECT),
+        events(parser(DOCUMENT, SCHEMA, 0)));
+  }
+}
@@ -0,0 +1,169 @@
+package net.pincette.jf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow.Subscriber;
+import java.util.concurrent.Flow.Subscription;
+import javax.json.Json;
+import javax.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+class ValuePublisherTest {
+  private static ClosingParser parser(final String json) throws IOException {
+    return new ClosingParser(new JacksonParser(new JsonFactory().createParser(json)));
+  }
+
+  private static JsonValue value(final String json) {
+    return Json.createReader(new StringReader(json)).readValue();
+  }
+
+  private static List<JsonValue> values(final String json) {
+    final List<JsonValue> result = new ArrayList<>();
+
+    value(json).asJsonArray().forEach(result::add);
+
+    return result;
+  }
+
+  @Test
+  void backpressure() throws IOException {
+    final ClosingParser parser = parser("[1,2,3,4,5]");
+    final Recorder recorder = new Recorder();
+
+    new ValuePublisher(parser).subscribe(recorder);
+    recorder.subscription.request(2);
+    assertEquals(values("[1,2]"), recorder.values);
+    assertEquals(3, parser.events);
+    assertFalse(recorder.completed);
+    recorder.subscription.request(10);
+    assertEquals(values("[1,2,3,4,5]"), recorder.values);
+    assertTrue(recorder.completed);
+    assertTrue(parser.closed);
+  }
+
+  @Test
+  void cancel() throws IOException {
+    final ClosingParser parser = parser("[1,2,3]");
+    final Recorder recorder = new Recorder();
+
+    new ValuePublisher(parser).subscribe(recorder);
+    recorder.subscription.request(1);
+    recorder.subscription.cancel();
+    recorder.subscription.request(1);
+    assertEquals(values("[1]"), recorder.values);
+    assertFalse(recorder.completed);
+    assertTrue(parser.closed);
+  }
+
+  @Test
+  void invalidRequest() throws IOException {
+    final Recorder recorder = new Recorder();
+
+    new ValuePublisher(parser("[1]")).subscribe(recorder);
+    recorder.subscription.request(0);
+    assertTrue(recorder.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  void object() throws IOException {
+    final Recorder recorder = new Recorder();
+
+    new ValuePublisher(parser("{\"a\":1}")).subscribe(recorder);
+    recorder.subscription.request(Long.MAX_VALUE);
+    assertEquals(List.of(value("{\"a\":1}")), recorder.values);
+    assertTrue(recorder.completed);
+  }
+
+  @Test
+  void onlyOneSubscriber() throws IOException {
+    final ValuePublisher publisher = new ValuePublisher(parser("[1]"));
+    final Recorder second = new Recorder();
+
+    publisher.subscribe(new Recorder());
+    publisher.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+
+  @Test
+  void parseError() throws IOException {
+    final ClosingParser parser = parser("[1,}");
+    final Recorder recorder = new Recorder();
+
+    new ValuePublisher(parser).subscribe(recorder);
+    recorder.subscription.request(5);
+    assertEquals(values("[1]"), recorder.values);
+    assertTrue(recorder.error != null);
+    assertTrue(parser.closed);
+  }
+
+  @Test
+  void requestFromOnNext() throws IOException {
+    final Recorder recorder =
+        new Recorder() {
+          @Override
+          public void onNext(final JsonValue item) {
+            super.onNext(item);
+            subscription.request(1);
+          }
+        };
+
+    new ValuePublisher(parser("[1,2,3]")).subscribe(recorder);
+    recorder.subscription.request(1);
+    assertEquals(values("[1,2,3]"), recorder.values);
+    assertTrue(recorder.completed);
+    assertNull(recorder.error);
+  }
+
+  private static class ClosingParser extends JsonParserWrapper {
+    private boolean closed;
+    private int events;
+
+    private ClosingParser(final JacksonParser delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      super.close();
+    }
+
+    @Override
+    public Event next() {
+      ++events;
+
+      return super.next();
+    }
+  }
+
+  private static class Recorder implements Subscriber<JsonValue> {
+    private boolean completed;
+    private Throwable error;
+    Subscription subscription;
+    private final List<JsonValue> values = new ArrayList<>();
+
+    public void onComplete() {
+      completed = true;
+    }
+
+    public void onError(final Throwable throwable) {
+      error = throwable;
+    }
+
+    public void onNext(final JsonValue item) {
+      values.add(item);
+    }
+
+    public void onSubscribe(final Subscription subscription) {
+      this.subscription = subscription;
+    }
+  }
+}